@@ -0,0 +1,23 @@
+package com.fintech.digiwallet.config;
+
+import com.fintech.digiwallet.domain.entity.EntityIds;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+// Entities create their ids in a JPA callback, outside of Spring, so the configured
+// strategy is pushed into the static EntityIds holder once at startup.
+@Configuration
+@Slf4j
+public class EntityIdConfig {
+
+    @Value("${app.persistence.id-strategy:TIME_ORDERED}")
+    private EntityIds.Strategy idStrategy;
+
+    @PostConstruct
+    void applyIdStrategy() {
+        EntityIds.setStrategy(idStrategy);
+        log.info("Entity id strategy: {}", idStrategy);
+    }
+}
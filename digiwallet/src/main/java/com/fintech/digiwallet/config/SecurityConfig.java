@@ -45,10 +45,14 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> {
                     auth.requestMatchers(
                                     "/api/v1/auth/**",
-                                    "/actuator/**",
+                                    "/actuator/health/**",
+                                    "/actuator/info",
                                     "/error",
                                     "/h2-console/**"
                             ).permitAll()
+                            // Journal, statement, reconciliation, partition and fraud rule
+                            // operations change or expose data across all wallets
+                            .requestMatchers("/actuator/**").hasRole("ADMIN")
                             .anyRequest().authenticated();
                     System.out.println("✓ AUTH RULES CONFIGURED");
                 })
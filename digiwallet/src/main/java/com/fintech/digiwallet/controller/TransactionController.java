@@ -4,6 +4,7 @@ import com.fintech.digiwallet.dto.request.DepositRequest;
 import com.fintech.digiwallet.dto.request.TransferRequest;
 import com.fintech.digiwallet.dto.request.WithdrawalRequest;
 import com.fintech.digiwallet.dto.response.ApiResponse;
+import com.fintech.digiwallet.dto.response.CursorPageResponse;
 import com.fintech.digiwallet.dto.response.TransactionResponse;
 import com.fintech.digiwallet.service.TransactionService;
 import jakarta.validation.Valid;
@@ -85,4 +86,17 @@ public class TransactionController {
 
         return ResponseEntity.ok(ApiResponse.success(transactions));
     }
+
+    @GetMapping("/wallet/{walletNumber}/history")
+    public ResponseEntity<ApiResponse<CursorPageResponse<TransactionResponse>>> getWalletTransactionHistory(
+            @PathVariable String walletNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        log.info("Fetching transaction history for wallet: {}", walletNumber);
+
+        CursorPageResponse<TransactionResponse> history = transactionService
+                .getWalletTransactionHistory(walletNumber, cursor, limit);
+
+        return ResponseEntity.ok(ApiResponse.success(history));
+    }
 }
\ No newline at end of file
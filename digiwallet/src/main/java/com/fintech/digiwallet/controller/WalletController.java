@@ -5,18 +5,29 @@ import com.fintech.digiwallet.domain.repository.UserRepository;
 import com.fintech.digiwallet.dto.request.CreateWalletRequest;
 import com.fintech.digiwallet.dto.response.ApiResponse;
 import com.fintech.digiwallet.dto.response.BalanceResponse;
+import com.fintech.digiwallet.dto.response.BalanceSeriesResponse;
+import com.fintech.digiwallet.dto.response.HistoricalBalanceResponse;
 import com.fintech.digiwallet.dto.response.WalletResponse;
 import com.fintech.digiwallet.exception.UserNotFoundException;
 import com.fintech.digiwallet.service.WalletService;
+import com.fintech.digiwallet.service.statement.StatementFormat;
+import com.fintech.digiwallet.service.statement.StatementService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,6 +39,7 @@ public class WalletController {
 
     private final WalletService walletService;
     private final UserRepository userRepository;
+    private final StatementService statementService;
 
     @PostMapping
     public ResponseEntity<ApiResponse<WalletResponse>> createWallet(
@@ -90,4 +102,66 @@ public class WalletController {
 
         return ResponseEntity.ok(ApiResponse.success(balance));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{walletNumber}/balance/history")
+    public ResponseEntity<ApiResponse<HistoricalBalanceResponse>> getBalanceAt(
+            @PathVariable String walletNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        log.info("Fetching balance for wallet {} at {}", walletNumber, at);
+
+        HistoricalBalanceResponse balance = walletService.getWalletBalanceAt(walletNumber, at);
+
+        return ResponseEntity.ok(ApiResponse.success(balance));
+    }
+
+    @GetMapping("/{walletNumber}/balance/series")
+    public ResponseEntity<ApiResponse<BalanceSeriesResponse>> getBalanceSeries(
+            @PathVariable String walletNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "day") String interval) {
+        log.info("Fetching {} balance series for wallet {} from {} to {}",
+                interval, walletNumber, from, to);
+
+        BalanceSeriesResponse series = walletService.getWalletBalanceSeries(
+                walletNumber, from, to, interval);
+
+        return ResponseEntity.ok(ApiResponse.success(series));
+    }
+
+    @PostMapping("/{walletNumber}/deactivate")
+    public ResponseEntity<ApiResponse<WalletResponse>> deactivateWallet(
+            @PathVariable String walletNumber,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        log.info("Deactivating wallet: {}", walletNumber);
+
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+
+        WalletResponse wallet = walletService.deactivateWallet(walletNumber, user.getId());
+
+        return ResponseEntity.ok(ApiResponse.success(wallet, "Wallet deactivated successfully"));
+    }
+
+    @GetMapping("/{walletNumber}/statement")
+    public ResponseEntity<StreamingResponseBody> getStatement(
+            @PathVariable String walletNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        log.info("Streaming statement for wallet {} from {} to {}", walletNumber, from, to);
+
+        StatementFormat statementFormat = StatementFormat.from(format);
+        StreamingResponseBody body = statementService.streamStatement(
+                walletNumber, from, to, statementFormat);
+
+        String filename = "statement-" + walletNumber + "-" + from + "-" + to
+                + "." + statementFormat.getFileExtension();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(statementFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -28,7 +28,7 @@ public abstract class BaseEntity {
     @PrePersist
     protected void onCreate() {
         if (id == null) {
-            id = UUID.randomUUID();
+            id = EntityIds.newId();
         }
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
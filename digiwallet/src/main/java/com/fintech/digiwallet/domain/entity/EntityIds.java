@@ -0,0 +1,60 @@
+package com.fintech.digiwallet.domain.entity;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Primary key source for entities and for rows written with plain SQL.
+//
+// TIME_ORDERED issues UUIDv7 (RFC 9562): 48 bits of Unix milliseconds, then a 12-bit
+// counter in rand_a that keeps ids from this process monotonic within a millisecond,
+// then 62 random bits. PostgreSQL compares uuids bytewise, so new keys land on the
+// right-most B-tree page instead of splitting pages all over the index.
+public final class EntityIds {
+
+    public enum Strategy {
+        RANDOM,
+        TIME_ORDERED
+    }
+
+    private static final int COUNTER_BITS = 12;
+
+    private static volatile Strategy strategy = Strategy.TIME_ORDERED;
+
+    // Last issued (millis << COUNTER_BITS | counter)
+    private static final AtomicLong state = new AtomicLong();
+
+    private EntityIds() {
+    }
+
+    public static void setStrategy(Strategy strategy) {
+        EntityIds.strategy = strategy;
+    }
+
+    public static Strategy getStrategy() {
+        return strategy;
+    }
+
+    public static UUID newId() {
+        return strategy == Strategy.TIME_ORDERED ? timeOrdered() : UUID.randomUUID();
+    }
+
+    public static UUID timeOrdered() {
+        long next;
+        while (true) {
+            long last = state.get();
+            long now = System.currentTimeMillis();
+            // A full counter carries into the timestamp, as does a clock that steps back
+            next = now > (last >>> COUNTER_BITS) ? now << COUNTER_BITS : last + 1;
+            if (state.compareAndSet(last, next)) {
+                break;
+            }
+        }
+
+        long millis = next >>> COUNTER_BITS;
+        long counter = next & ((1L << COUNTER_BITS) - 1);
+        long msb = (millis << 16) | 0x7000L | counter;
+        long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
@@ -40,8 +40,8 @@ public class LedgerEntry extends BaseEntity {
     @Column(nullable = false, length = 3)
     private Currency currency;
 
-    @Column(nullable = false, precision = 19, scale = 4)
-    private BigDecimal balanceAfter; // Wallet balance after this entry
+    @Column(precision = 19, scale = 4)
+    private BigDecimal balanceAfter; // Wallet balance after this entry; null on striped wallets
 
     @Column(nullable = false, length = 100)
     private String reference; // Transaction reference for reconciliation
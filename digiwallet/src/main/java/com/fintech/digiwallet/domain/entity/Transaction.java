@@ -19,8 +19,8 @@ import java.util.Set;
 @Entity
 @Table(name = "transactions", indexes = {
         @Index(name = "idx_transaction_ref", columnList = "transaction_ref"),
-        @Index(name = "idx_transaction_source", columnList = "source_wallet_id"),
-        @Index(name = "idx_transaction_dest", columnList = "destination_wallet_id"),
+        @Index(name = "idx_transaction_source_created", columnList = "source_wallet_id, created_at, id"),
+        @Index(name = "idx_transaction_dest_created", columnList = "destination_wallet_id, created_at, id"),
         @Index(name = "idx_transaction_status", columnList = "status"),
         @Index(name = "idx_transaction_created", columnList = "created_at"),
         @Index(name = "idx_idempotency_key", columnList = "idempotency_key")
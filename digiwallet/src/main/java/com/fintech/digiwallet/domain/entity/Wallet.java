@@ -55,6 +55,14 @@ public class Wallet extends BaseEntity {
     @Builder.Default
     private Boolean isPrimary = false; // One primary wallet per currency
 
+    @Column(name = "stripe_count", nullable = false)
+    @Builder.Default
+    private Integer stripeCount = 0; // > 0 spreads credits over balance stripes (hot wallets)
+
+    @Column(name = "time_zone", nullable = false, length = 50)
+    @Builder.Default
+    private String timeZone = "UTC"; // day boundary of daily limits
+
     @OneToMany(mappedBy = "sourceWallet", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @Builder.Default
     private Set<Transaction> outgoingTransactions = new HashSet<>();
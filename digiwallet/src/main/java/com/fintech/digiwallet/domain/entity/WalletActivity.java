@@ -0,0 +1,82 @@
+package com.fintech.digiwallet.domain.entity;
+
+import com.fintech.digiwallet.domain.enums.AccountType;
+import com.fintech.digiwallet.domain.enums.Currency;
+import com.fintech.digiwallet.domain.enums.TransactionStatus;
+import com.fintech.digiwallet.domain.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Read-side row of the wallet activity model; written with plain SQL by
+// WalletActivityService, so it is read-only here and has no BaseEntity audit columns.
+@Entity
+@Immutable
+@Table(name = "wallet_activity", indexes = {
+        @Index(name = "idx_wallet_activity_wallet_created", columnList = "wallet_id, created_at, transaction_id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_wallet_activity_movement",
+                columnNames = {"wallet_id", "transaction_id", "direction"})
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletActivity {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private UUID walletId;
+
+    @Column(name = "wallet_number", nullable = false, length = 20)
+    private String walletNumber;
+
+    @Column(name = "transaction_id", nullable = false)
+    private UUID transactionId;
+
+    @Column(name = "transaction_ref", nullable = false, length = 50)
+    private String transactionRef;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false, length = 20)
+    private TransactionType transactionType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TransactionStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private AccountType direction; // DEBIT or CREDIT, from this wallet's side
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal amount;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal fee;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 3)
+    private Currency currency;
+
+    @Column(name = "counterparty_wallet_number", length = 20)
+    private String counterpartyWalletNumber;
+
+    @Column(length = 500)
+    private String description;
+
+    @Column(name = "balance_after", precision = 19, scale = 4)
+    private BigDecimal balanceAfter;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -2,10 +2,21 @@ package com.fintech.digiwallet.domain.enums;
 
 
 public enum Currency {
-    USD,
-    EUR,
-    GBP,
-    NGN,
-    KES,
-    ZAR
-}
\ No newline at end of file
+    USD(2),
+    EUR(2),
+    GBP(2),
+    NGN(2),
+    KES(2),
+    ZAR(2);
+
+    // ISO 4217 minor unit digits, e.g. 2 for cents
+    private final int minorUnitDigits;
+
+    Currency(int minorUnitDigits) {
+        this.minorUnitDigits = minorUnitDigits;
+    }
+
+    public int getMinorUnitDigits() {
+        return minorUnitDigits;
+    }
+}
@@ -0,0 +1,18 @@
+package com.fintech.digiwallet.domain.projection;
+
+import com.fintech.digiwallet.domain.enums.AccountType;
+import com.fintech.digiwallet.domain.enums.Currency;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One ledger entry as it appears on a wallet statement
+public record LedgerStatementLine(
+        LocalDateTime createdAt,
+        String reference,
+        AccountType entryType,
+        BigDecimal amount,
+        Currency currency,
+        BigDecimal balanceAfter,
+        String description
+) {}
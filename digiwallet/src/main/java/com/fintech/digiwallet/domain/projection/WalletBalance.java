@@ -0,0 +1,13 @@
+package com.fintech.digiwallet.domain.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Balances of a wallet row as returned by a single-statement balance mutation
+public record WalletBalance(
+        UUID walletId,
+        BigDecimal balance,
+        BigDecimal availableBalance,
+        BigDecimal pendingBalance,
+        long version
+) {}
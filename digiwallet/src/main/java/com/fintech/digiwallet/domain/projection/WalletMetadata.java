@@ -0,0 +1,36 @@
+package com.fintech.digiwallet.domain.projection;
+
+import com.fintech.digiwallet.domain.enums.Currency;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// The parts of a wallet that do not change with its balance. id, user and currency
+// never change; active, stripeCount and timeZone are WalletSettings and may.
+public record WalletMetadata(
+        UUID id,
+        String walletNumber,
+        UUID userId,
+        Currency currency,
+        boolean active,
+        int stripeCount,
+        String timeZone
+) {
+
+    public WalletMetadata(UUID id, String walletNumber, UUID userId, Currency currency,
+                          WalletSettings settings) {
+        this(id, walletNumber, userId, currency, settings.active(), settings.stripeCount(),
+                settings.timeZone());
+    }
+
+    public WalletSettings settings() {
+        return new WalletSettings(active, stripeCount, timeZone);
+    }
+
+    // Running balance to record on this wallet's ledger entries and activity. Striped
+    // wallets take credits on several rows at once, so their balance changes have no
+    // serial order and they record none; readers derive it from the amounts.
+    public BigDecimal balanceAfter(BigDecimal balance) {
+        return stripeCount > 0 ? null : balance;
+    }
+}
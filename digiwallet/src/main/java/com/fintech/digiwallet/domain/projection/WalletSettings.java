@@ -0,0 +1,8 @@
+package com.fintech.digiwallet.domain.projection;
+
+// The parts of a wallet's metadata that can change after it is created
+public record WalletSettings(
+        boolean active,
+        int stripeCount,
+        String timeZone
+) {}
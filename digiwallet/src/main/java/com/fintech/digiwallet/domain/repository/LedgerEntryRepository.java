@@ -2,25 +2,39 @@ package com.fintech.digiwallet.domain.repository;
 
 
 import com.fintech.digiwallet.domain.entity.LedgerEntry;
+import com.fintech.digiwallet.domain.projection.LedgerStatementLine;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, UUID> {
     List<LedgerEntry> findByWalletIdOrderByCreatedAtDesc(UUID walletId);
     List<LedgerEntry> findByTransactionId(UUID transactionId);
 
-    @Query("SELECT l FROM LedgerEntry l WHERE " +
+    // Forward-only, read-only cursor in statement order: rows are fetched from the
+    // database in chunks of the fetch size and never enter the persistence context.
+    // The caller must consume it inside a transaction and close it.
+    @Query("SELECT new com.fintech.digiwallet.domain.projection.LedgerStatementLine(" +
+            "l.createdAt, l.reference, l.entryType, l.amount, l.currency, l.balanceAfter, " +
+            "l.description) FROM LedgerEntry l WHERE " +
             "l.wallet.id = :walletId " +
-            "AND l.createdAt BETWEEN :startDate AND :endDate " +
-            "ORDER BY l.createdAt DESC")
-    List<LedgerEntry> findWalletLedgerEntriesBetween(
+            "AND l.createdAt >= :startDate AND l.createdAt < :endDate " +
+            "ORDER BY l.createdAt ASC, l.id ASC")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<LedgerStatementLine> findWalletLedgerEntriesBetween(
             @Param("walletId") UUID walletId,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
@@ -0,0 +1,30 @@
+package com.fintech.digiwallet.domain.repository;
+
+import com.fintech.digiwallet.domain.entity.WalletActivity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface WalletActivityRepository extends JpaRepository<WalletActivity, UUID> {
+
+    Page<WalletActivity> findByWalletId(UUID walletId, Pageable pageable);
+
+    // Keyset page, newest first: one range scan on idx_wallet_activity_wallet_created
+    @Query(value = "SELECT * FROM wallet_activity WHERE wallet_id = :walletId " +
+            "AND (created_at, transaction_id) < (:createdAt, :transactionId) " +
+            "ORDER BY created_at DESC, transaction_id DESC LIMIT :limit",
+            nativeQuery = true)
+    List<WalletActivity> findPageBefore(
+            @Param("walletId") UUID walletId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("transactionId") UUID transactionId,
+            @Param("limit") int limit);
+}
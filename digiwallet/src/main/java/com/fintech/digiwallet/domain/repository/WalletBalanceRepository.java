@@ -0,0 +1,170 @@
+package com.fintech.digiwallet.domain.repository;
+
+import com.fintech.digiwallet.domain.projection.WalletBalance;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Conditional single-statement balance mutations. Each statement either applies
+// the change and returns the new balances, or matches no row (insufficient funds
+// or unknown wallet), so no read-modify-write round trip or optimistic retry is needed.
+@Repository
+@RequiredArgsConstructor
+public class WalletBalanceRepository {
+
+    // Credits parked on stripes of a hot wallet are part of its balance
+    private static final String STRIPE_TOTAL =
+            "(SELECT COALESCE(SUM(s.balance), 0) FROM wallet_balance_stripes s " +
+                    "WHERE s.wallet_id = wallets.id)";
+
+    private static final String RETURNING =
+            " RETURNING id, balance + " + STRIPE_TOTAL + " AS balance, " +
+                    "available_balance + " + STRIPE_TOTAL + " AS available_balance, " +
+                    "pending_balance, version";
+
+    // Credits one stripe; the other stripes are read from the statement snapshot
+    private static final String CREDIT_STRIPE_SQL =
+            "WITH credited AS (" +
+                    "INSERT INTO wallet_balance_stripes (wallet_id, stripe, balance, updated_at) " +
+                    "VALUES (:walletId, :stripe, :amount, CURRENT_TIMESTAMP) " +
+                    "ON CONFLICT (wallet_id, stripe) DO UPDATE " +
+                    "SET balance = wallet_balance_stripes.balance + EXCLUDED.balance, " +
+                    "updated_at = EXCLUDED.updated_at " +
+                    "RETURNING stripe, balance) " +
+                    "SELECT w.id, w.balance + o.total + c.balance AS balance, " +
+                    "w.available_balance + o.total + c.balance AS available_balance, " +
+                    "w.pending_balance, w.version " +
+                    "FROM wallets w CROSS JOIN credited c " +
+                    "CROSS JOIN LATERAL (SELECT COALESCE(SUM(s.balance), 0) AS total " +
+                    "FROM wallet_balance_stripes s " +
+                    "WHERE s.wallet_id = w.id AND s.stripe <> c.stripe) o " +
+                    "WHERE w.id = :walletId";
+
+    // Folds every stripe back into the wallet row, locking stripes in stripe order
+    private static final String CONSOLIDATE_SQL =
+            "WITH drained AS (" +
+                    "UPDATE wallet_balance_stripes s SET balance = 0, updated_at = CURRENT_TIMESTAMP " +
+                    "FROM (SELECT stripe, balance FROM wallet_balance_stripes " +
+                    "WHERE wallet_id = :walletId AND balance <> 0 ORDER BY stripe FOR UPDATE) prior " +
+                    "WHERE s.wallet_id = :walletId AND s.stripe = prior.stripe " +
+                    "RETURNING prior.balance) " +
+                    "UPDATE wallets SET balance = balance + (SELECT SUM(balance) FROM drained), " +
+                    "available_balance = available_balance + (SELECT SUM(balance) FROM drained), " +
+                    "version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+                    "WHERE id = :walletId AND EXISTS (SELECT 1 FROM drained)";
+
+    private static final String STRIPE_TOTAL_SQL =
+            "SELECT COALESCE(SUM(balance), 0) FROM wallet_balance_stripes WHERE wallet_id = :walletId";
+
+    private static final String WALLETS_WITH_STRIPE_BALANCE_SQL =
+            "SELECT DISTINCT wallet_id FROM wallet_balance_stripes WHERE balance <> 0";
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE wallets SET balance = balance + :amount, " +
+                    "available_balance = available_balance + :amount, " +
+                    "version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+                    "WHERE id = :walletId AND available_balance + :amount >= 0" +
+                    RETURNING;
+
+    private static final String RESERVE_SQL =
+            "UPDATE wallets SET available_balance = available_balance - :amount, " +
+                    "pending_balance = pending_balance + :amount, " +
+                    "version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+                    "WHERE id = :walletId AND available_balance >= :amount" +
+                    RETURNING;
+
+    private static final String RELEASE_SQL =
+            "UPDATE wallets SET balance = balance - :amount, " +
+                    "pending_balance = pending_balance - :amount, " +
+                    "version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+                    "WHERE id = :walletId AND pending_balance >= :amount" +
+                    RETURNING;
+
+    private static final String FIND_SQL =
+            "SELECT id, balance, available_balance, pending_balance, version FROM wallets " +
+                    "WHERE id = :walletId";
+
+    private static final String LOCK_SQL =
+            "SELECT id FROM wallets WHERE id = :walletId FOR UPDATE";
+
+    private static final RowMapper<WalletBalance> BALANCE_ROW_MAPPER = (rs, rowNum) ->
+            new WalletBalance(
+                    rs.getObject("id", UUID.class),
+                    rs.getBigDecimal("balance"),
+                    rs.getBigDecimal("available_balance"),
+                    rs.getBigDecimal("pending_balance"),
+                    rs.getLong("version"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Adds amount (may be negative) to balance and available balance
+    public Optional<WalletBalance> applyDelta(UUID walletId, BigDecimal amount) {
+        return execute(APPLY_DELTA_SQL, walletId, amount);
+    }
+
+    // Moves amount from available to pending balance
+    public Optional<WalletBalance> reserve(UUID walletId, BigDecimal amount) {
+        return execute(RESERVE_SQL, walletId, amount);
+    }
+
+    // Settles a previous reservation out of the wallet
+    public Optional<WalletBalance> release(UUID walletId, BigDecimal amount) {
+        return execute(RELEASE_SQL, walletId, amount);
+    }
+
+    // Adds a credit to one stripe of a hot wallet instead of its wallets row
+    public Optional<WalletBalance> creditStripe(UUID walletId, int stripe, BigDecimal amount) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("walletId", walletId)
+                .addValue("stripe", stripe)
+                .addValue("amount", amount);
+
+        return jdbcTemplate.query(CREDIT_STRIPE_SQL, params, BALANCE_ROW_MAPPER)
+                .stream().findFirst();
+    }
+
+    // Returns true when there was anything to fold back into the wallet row
+    public boolean consolidateStripes(UUID walletId) {
+        return jdbcTemplate.update(CONSOLIDATE_SQL,
+                new MapSqlParameterSource("walletId", walletId)) > 0;
+    }
+
+    public BigDecimal sumStripes(UUID walletId) {
+        return jdbcTemplate.queryForObject(STRIPE_TOTAL_SQL,
+                new MapSqlParameterSource("walletId", walletId), BigDecimal.class);
+    }
+
+    public List<UUID> findWalletsWithStripeBalance() {
+        return jdbcTemplate.queryForList(WALLETS_WITH_STRIPE_BALANCE_SQL,
+                new MapSqlParameterSource(), UUID.class);
+    }
+
+    // Balances of the wallets row alone, without stripes
+    public Optional<WalletBalance> find(UUID walletId) {
+        return jdbcTemplate.query(FIND_SQL, new MapSqlParameterSource("walletId", walletId),
+                BALANCE_ROW_MAPPER).stream().findFirst();
+    }
+
+    // Takes the row lock on the wallet for the rest of the transaction
+    public boolean lockForUpdate(UUID walletId) {
+        List<UUID> rows = jdbcTemplate.queryForList(
+                LOCK_SQL, new MapSqlParameterSource("walletId", walletId), UUID.class);
+        return !rows.isEmpty();
+    }
+
+    private Optional<WalletBalance> execute(String sql, UUID walletId, BigDecimal amount) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("walletId", walletId)
+                .addValue("amount", amount);
+
+        List<WalletBalance> rows = jdbcTemplate.query(sql, params, BALANCE_ROW_MAPPER);
+        return rows.stream().findFirst();
+    }
+}
@@ -3,6 +3,8 @@ package com.fintech.digiwallet.domain.repository;
 
 import com.fintech.digiwallet.domain.entity.Wallet;
 import com.fintech.digiwallet.domain.enums.Currency;
+import com.fintech.digiwallet.domain.projection.WalletMetadata;
+import com.fintech.digiwallet.domain.projection.WalletSettings;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -22,4 +24,14 @@ public interface WalletRepository extends JpaRepository<Wallet, UUID> {
     List<Wallet> findActiveWalletsByUserId(@Param("userId") UUID userId);
 
     boolean existsByWalletNumber(String walletNumber);
+
+    @Query("SELECT new com.fintech.digiwallet.domain.projection.WalletMetadata(" +
+            "w.id, w.walletNumber, w.user.id, w.currency, w.isActive, w.stripeCount, w.timeZone) " +
+            "FROM Wallet w WHERE w.walletNumber = :walletNumber")
+    Optional<WalletMetadata> findMetadataByWalletNumber(@Param("walletNumber") String walletNumber);
+
+    @Query("SELECT new com.fintech.digiwallet.domain.projection.WalletSettings(" +
+            "w.isActive, w.stripeCount, w.timeZone) " +
+            "FROM Wallet w WHERE w.walletNumber = :walletNumber")
+    Optional<WalletSettings> findSettingsByWalletNumber(@Param("walletNumber") String walletNumber);
 }
\ No newline at end of file
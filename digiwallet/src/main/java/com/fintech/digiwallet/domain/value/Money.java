@@ -0,0 +1,139 @@
+package com.fintech.digiwallet.domain.value;
+
+import com.fintech.digiwallet.domain.enums.Currency;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+// Amount in minor units of its currency (cents for USD). Arithmetic stays on longs
+// and fails on overflow instead of wrapping.
+//
+// Used where the application itself computes with amounts: fees, fraud thresholds,
+// daily limits and available-balance checks. Balance updates happen in SQL on
+// NUMERIC(19,4) columns, so entities and JDBC results keep BigDecimal and there is
+// no JPA converter; the currency lives in its own column anyway. Each operation
+// returns a new record, which escape analysis usually removes, so the gain over
+// BigDecimal is mostly CPU; MoneyBenchmark compares the two.
+public record Money(long minorUnits, Currency currency) implements Comparable<Money> {
+
+    public Money {
+        Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    public static Money zero(Currency currency) {
+        return new Money(0, currency);
+    }
+
+    // Exact conversion; throws ArithmeticException if the amount has more decimals
+    // than the currency allows
+    public static Money of(BigDecimal amount, Currency currency) {
+        return new Money(amount.movePointRight(currency.getMinorUnitDigits()).longValueExact(),
+                currency);
+    }
+
+    public static Money of(BigDecimal amount, Currency currency, RoundingMode roundingMode) {
+        return new Money(amount.setScale(currency.getMinorUnitDigits(), roundingMode)
+                .movePointRight(currency.getMinorUnitDigits()).longValueExact(), currency);
+    }
+
+    // True when the amount can be represented exactly in minor units
+    public static boolean fitsMinorUnits(BigDecimal amount, Currency currency) {
+        return amount.stripTrailingZeros().scale() <= currency.getMinorUnitDigits();
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, checkCurrency(other).minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, checkCurrency(other).minorUnits), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minorUnits, factor), currency);
+    }
+
+    // Fraction of this amount in basis points (1 bp = 0.01%), e.g. 100 for a 1% fee
+    public Money basisPoints(long basisPoints, RoundingMode roundingMode) {
+        return times(basisPoints, 10_000, roundingMode);
+    }
+
+    // this * numerator / denominator, rounded back to whole minor units
+    public Money times(long numerator, long denominator, RoundingMode roundingMode) {
+        long product = Math.multiplyExact(minorUnits, numerator);
+        long quotient = product / denominator;
+        long remainder = product % denominator;
+        if (remainder == 0) {
+            return new Money(quotient, currency);
+        }
+
+        // Division truncated toward zero; rounding "up" moves one unit away from zero
+        int sign = (product < 0) == (denominator < 0) ? 1 : -1;
+        long rest = Math.abs(remainder);
+        int half = Long.compare(rest, Math.abs(denominator) - rest);
+
+        boolean awayFromZero = switch (roundingMode) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> sign > 0;
+            case FLOOR -> sign < 0;
+            case HALF_UP -> half >= 0;
+            case HALF_DOWN -> half > 0;
+            case HALF_EVEN -> half > 0 || (half == 0 && (quotient & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+
+        return new Money(awayFromZero ? quotient + sign : quotient, currency);
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return compareTo(other) < 0;
+    }
+
+    public boolean isGreaterThanOrEqual(Money other) {
+        return compareTo(other) >= 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, checkCurrency(other).minorUnits);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getMinorUnitDigits());
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency;
+    }
+
+    private Money checkCurrency(Money other) {
+        if (other.currency != currency) {
+            throw new IllegalArgumentException(
+                    "Currency mismatch: " + currency + " and " + other.currency);
+        }
+        return other;
+    }
+}
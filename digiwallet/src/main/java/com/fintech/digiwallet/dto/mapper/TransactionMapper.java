@@ -15,5 +15,12 @@ public interface TransactionMapper {
     @Mapping(source = "destinationWallet.walletNumber", target = "destinationWalletNumber")
     TransactionResponse toResponse(Transaction transaction);
 
+    // For transactions whose wallets are unloaded references: the caller already
+    // knows the wallet numbers, so the proxies are never initialised
+    @Mapping(source = "sourceWalletNumber", target = "sourceWalletNumber")
+    @Mapping(source = "destinationWalletNumber", target = "destinationWalletNumber")
+    TransactionResponse toResponse(Transaction transaction, String sourceWalletNumber,
+                                   String destinationWalletNumber);
+
     List<TransactionResponse> toResponseList(List<Transaction> transactions);
 }
@@ -0,0 +1,25 @@
+package com.fintech.digiwallet.dto.mapper;
+
+import com.fintech.digiwallet.domain.entity.WalletActivity;
+import com.fintech.digiwallet.domain.enums.AccountType;
+import com.fintech.digiwallet.dto.response.TransactionResponse;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE,
+        imports = AccountType.class)
+public interface WalletActivityMapper {
+
+    // A debit row belongs to the source wallet, a credit row to the destination
+    @Mapping(source = "transactionId", target = "id")
+    @Mapping(target = "sourceWalletNumber", expression = "java(activity.getDirection() == AccountType.DEBIT " +
+            "? activity.getWalletNumber() : activity.getCounterpartyWalletNumber())")
+    @Mapping(target = "destinationWalletNumber", expression = "java(activity.getDirection() == AccountType.CREDIT " +
+            "? activity.getWalletNumber() : activity.getCounterpartyWalletNumber())")
+    TransactionResponse toResponse(WalletActivity activity);
+
+    List<TransactionResponse> toResponseList(List<WalletActivity> activities);
+}
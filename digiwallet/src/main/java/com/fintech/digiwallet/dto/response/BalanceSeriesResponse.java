@@ -0,0 +1,30 @@
+package com.fintech.digiwallet.dto.response;
+
+import com.fintech.digiwallet.domain.enums.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSeriesResponse {
+    private String walletNumber;
+    private Currency currency;
+    private String interval;
+    private List<Point> points;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Point {
+        private LocalDateTime at;
+        private BigDecimal balance;
+    }
+}
@@ -0,0 +1,21 @@
+package com.fintech.digiwallet.dto.response;
+
+import com.fintech.digiwallet.domain.enums.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoricalBalanceResponse {
+    private String walletNumber;
+    private Currency currency;
+    private LocalDateTime at;
+    private BigDecimal balance;
+}
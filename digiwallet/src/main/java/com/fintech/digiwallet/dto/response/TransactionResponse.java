@@ -1,6 +1,7 @@
 package com.fintech.digiwallet.dto.response;
 
 
+import com.fintech.digiwallet.domain.enums.AccountType;
 import com.fintech.digiwallet.domain.enums.Currency;
 import com.fintech.digiwallet.domain.enums.TransactionStatus;
 import com.fintech.digiwallet.domain.enums.TransactionType;
@@ -33,4 +34,6 @@ public class TransactionResponse {
     private String failureReason;
     private LocalDateTime completedAt;
     private LocalDateTime createdAt;
+    private AccountType direction;   // set on wallet history rows only
+    private BigDecimal balanceAfter; // set on wallet history rows only
 }
\ No newline at end of file
@@ -4,6 +4,9 @@ package com.fintech.digiwallet.security;
 import com.fintech.digiwallet.domain.entity.User;
 import com.fintech.digiwallet.domain.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -11,6 +14,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -18,6 +23,10 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    // Users allowed to call the operational actuator endpoints
+    @Value("${app.security.admin-emails:}")
+    private Set<String> adminEmails;
+
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -29,11 +38,19 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .builder()
                 .username(user.getEmail())
                 .password(user.getPasswordHash())
-                .authorities(new ArrayList<>())
+                .authorities(authorities(user))
                 .accountExpired(false)
                 .accountLocked(!user.getIsActive())
                 .credentialsExpired(false)
                 .disabled(!user.getIsActive())
                 .build();
     }
-}
\ No newline at end of file
+
+    private List<GrantedAuthority> authorities(User user) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        if (adminEmails.contains(user.getEmail())) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        }
+        return authorities;
+    }
+}
@@ -4,12 +4,15 @@ import com.fintech.digiwallet.domain.entity.LedgerEntry;
 import com.fintech.digiwallet.domain.entity.Transaction;
 import com.fintech.digiwallet.domain.entity.Wallet;
 import com.fintech.digiwallet.domain.enums.AccountType;
+import com.fintech.digiwallet.domain.projection.WalletMetadata;
 import com.fintech.digiwallet.domain.repository.LedgerEntryRepository;
+import com.fintech.digiwallet.service.ledger.LedgerWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,70 +22,75 @@ import java.util.UUID;
 public class LedgerService {
 
     private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerWriter ledgerWriter;
 
     @Transactional
     public void createTransferLedgerEntries(Transaction transaction,
-                                            Wallet sourceWallet,
-                                            Wallet destinationWallet) {
+                                            WalletMetadata sourceWallet,
+                                            WalletMetadata destinationWallet,
+                                            BigDecimal sourceBalanceAfter,
+                                            BigDecimal destinationBalanceAfter) {
         // Debit entry for source wallet
         LedgerEntry debitEntry = LedgerEntry.builder()
                 .transaction(transaction)
-                .wallet(sourceWallet)
+                .wallet(transaction.getSourceWallet())
                 .entryType(AccountType.DEBIT)
                 .amount(transaction.getAmount().add(transaction.getFee()))
                 .currency(transaction.getCurrency())
-                .balanceAfter(sourceWallet.getBalance())
+                .balanceAfter(sourceBalanceAfter)
                 .reference(transaction.getTransactionRef())
-                .description("Transfer to " + destinationWallet.getWalletNumber())
+                .description("Transfer to " + destinationWallet.walletNumber())
                 .build();
 
         // Credit entry for destination wallet
         LedgerEntry creditEntry = LedgerEntry.builder()
                 .transaction(transaction)
-                .wallet(destinationWallet)
+                .wallet(transaction.getDestinationWallet())
                 .entryType(AccountType.CREDIT)
                 .amount(transaction.getAmount())
                 .currency(transaction.getCurrency())
-                .balanceAfter(destinationWallet.getBalance())
+                .balanceAfter(destinationBalanceAfter)
                 .reference(transaction.getTransactionRef())
-                .description("Transfer from " + sourceWallet.getWalletNumber())
+                .description("Transfer from " + sourceWallet.walletNumber())
                 .build();
 
-        ledgerEntryRepository.saveAll(List.of(debitEntry, creditEntry));
+        ledgerWriter.write(List.of(debitEntry, creditEntry));
         log.debug("Ledger entries created for transfer: {}", transaction.getTransactionRef());
     }
 
     @Transactional
-    public void createDepositLedgerEntry(Transaction transaction, Wallet wallet) {
+    public void createDepositLedgerEntry(Transaction transaction, Wallet wallet,
+                                         BigDecimal balanceAfter) {
         LedgerEntry entry = LedgerEntry.builder()
                 .transaction(transaction)
                 .wallet(wallet)
                 .entryType(AccountType.CREDIT)
                 .amount(transaction.getAmount())
                 .currency(transaction.getCurrency())
-                .balanceAfter(wallet.getBalance())
+                .balanceAfter(balanceAfter)
                 .reference(transaction.getTransactionRef())
                 .description("Deposit")
                 .build();
 
-        ledgerEntryRepository.save(entry);
+        ledgerWriter.write(List.of(entry));
         log.debug("Ledger entry created for deposit: {}", transaction.getTransactionRef());
     }
 
     @Transactional
-    public void createWithdrawalLedgerEntry(Transaction transaction, Wallet wallet) {
+    public void createWithdrawalLedgerEntry(Transaction transaction, Wallet wallet,
+                                            BigDecimal balanceAfter) {
         LedgerEntry entry = LedgerEntry.builder()
                 .transaction(transaction)
                 .wallet(wallet)
                 .entryType(AccountType.DEBIT)
                 .amount(transaction.getAmount())
                 .currency(transaction.getCurrency())
-                .balanceAfter(wallet.getBalance())
+                .balanceAfter(balanceAfter)
                 .reference(transaction.getTransactionRef())
                 .description("Withdrawal")
                 .build();
 
-        ledgerEntryRepository.save(entry);
+        ledgerWriter.write(List.of(entry));
         log.debug("Ledger entry created for withdrawal: {}", transaction.getTransactionRef());
     }
 
@@ -6,17 +6,25 @@ import com.fintech.digiwallet.domain.entity.Wallet;
 import com.fintech.digiwallet.domain.enums.PaymentFrequency;
 import com.fintech.digiwallet.domain.enums.TransactionStatus;
 import com.fintech.digiwallet.domain.enums.TransactionType;
+import com.fintech.digiwallet.domain.projection.WalletBalance;
+import com.fintech.digiwallet.domain.projection.WalletMetadata;
 import com.fintech.digiwallet.domain.repository.RecurringPaymentRepository;
 import com.fintech.digiwallet.domain.repository.TransactionRepository;
+import com.fintech.digiwallet.domain.value.Money;
 import com.fintech.digiwallet.dto.request.RecurringPaymentRequest;
+import com.fintech.digiwallet.dto.mapper.TransactionMapper;
 import com.fintech.digiwallet.service.TransactionIdGenerator;
+import com.fintech.digiwallet.service.activity.WalletActivityService;
+import com.fintech.digiwallet.service.fraud.velocity.VelocityTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -33,6 +41,11 @@ public class RecurringPaymentService {
     private final LedgerService ledgerService;
     private final NotificationService notificationService;
     private final TransactionIdGenerator idGenerator;
+    private final FraudDetectionService fraudDetectionService;
+    private final WalletActivityService walletActivityService;
+    private final VelocityTracker velocityTracker;
+    private final TransactionMapper transactionMapper;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional
     public RecurringPayment createRecurringPayment(RecurringPaymentRequest request) {
@@ -84,27 +97,35 @@ public class RecurringPaymentService {
     }
 
     // This runs every minute for demo purposes (in production, use cron: 0 */5 * * * *)
+    // Each payment runs in its own transaction, so a failed one (e.g. over the daily
+    // limit) rolls back its own debit, spend and activity rows without touching the others.
     @Scheduled(fixedRate = 60000) // Every 60 seconds
-    @Transactional
     public void processScheduledPayments() {
         log.debug("🔍 Checking for due scheduled payments...");
 
         LocalDate today = LocalDate.now();
-        List<RecurringPayment> duePayments = recurringPaymentRepository
-                .findDuePayments(TransactionStatus.PENDING, today);
+        List<UUID> duePayments = recurringPaymentRepository
+                .findDuePayments(TransactionStatus.PENDING, today)
+                .stream()
+                .map(RecurringPayment::getId)
+                .toList();
 
         if (!duePayments.isEmpty()) {
             log.info("⚡ Found {} due scheduled payment(s)", duePayments.size());
         }
 
-        for (RecurringPayment payment : duePayments) {
+        for (UUID paymentId : duePayments) {
             try {
-                executeScheduledPayment(payment);
+                transactionTemplate.executeWithoutResult(status ->
+                        executeScheduledPayment(recurringPaymentRepository.findById(paymentId)
+                                .orElseThrow()));
             } catch (Exception e) {
-                log.error("Failed to execute scheduled payment: {}",
-                        payment.getId(), e);
-                payment.setStatus(TransactionStatus.FAILED);
-                recurringPaymentRepository.save(payment);
+                log.error("Failed to execute scheduled payment: {}", paymentId, e);
+                transactionTemplate.executeWithoutResult(status ->
+                        recurringPaymentRepository.findById(paymentId).ifPresent(payment -> {
+                            payment.setStatus(TransactionStatus.FAILED);
+                            recurringPaymentRepository.save(payment);
+                        }));
             }
         }
     }
@@ -116,7 +137,8 @@ public class RecurringPaymentService {
         Wallet sourceWallet = payment.getSourceWallet();
 
         // Check if wallet has sufficient funds
-        if (sourceWallet.getAvailableBalance().compareTo(payment.getAmount()) < 0) {
+        Money amount = Money.of(payment.getAmount(), sourceWallet.getCurrency(), RoundingMode.UP);
+        if (walletService.getAvailableBalance(sourceWallet).isLessThan(amount)) {
             log.warn("Insufficient funds for scheduled payment: {}", payment.getId());
             payment.setStatus(TransactionStatus.FAILED);
             recurringPaymentRepository.save(payment);
@@ -141,6 +163,10 @@ public class RecurringPaymentService {
             return;
         }
 
+        // Checked and counted against the daily limit and velocity like a withdrawal
+        WalletMetadata wallet = walletService.getWalletMetadata(sourceWallet.getWalletNumber());
+        fraudDetectionService.checkTransaction(wallet, null, amount, "PAYMENT");
+
         // Create and execute transaction
         String transactionRef = idGenerator.generateTransactionRef();
 
@@ -159,16 +185,25 @@ public class RecurringPaymentService {
         transaction = transactionRepository.save(transaction);
 
         // Deduct funds
-        walletService.updateBalance(sourceWallet.getId(), payment.getAmount().negate());
+        fraudDetectionService.recordDailySpend(wallet, amount);
+        WalletBalance balance = walletService.debitFunds(
+                sourceWallet.getId(), payment.getAmount());
 
         // Create ledger entry
-        ledgerService.createWithdrawalLedgerEntry(transaction, sourceWallet);
+        BigDecimal balanceAfter = wallet.balanceAfter(balance.balance());
+        ledgerService.createWithdrawalLedgerEntry(
+                transaction, sourceWallet, balanceAfter);
 
         // Complete transaction
         transaction.setStatus(TransactionStatus.COMPLETED);
         transaction.setCompletedAt(LocalDateTime.now());
         transactionRepository.save(transaction);
 
+        walletActivityService.recordWithdrawal(
+                transactionMapper.toResponse(transaction, wallet.walletNumber(), null),
+                wallet.id(), balanceAfter);
+        velocityTracker.recordAfterCommit(wallet, null);
+
         // Update recurring payment
         payment.setExecutionCount(payment.getExecutionCount() + 1);
         payment.setNextRunDate(calculateNextRunDate(payment));
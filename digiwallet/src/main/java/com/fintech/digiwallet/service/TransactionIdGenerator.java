@@ -1,26 +1,94 @@
 package com.fintech.digiwallet.service;
 
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
+// Snowflake-style ids: 41 bits of milliseconds since EPOCH, 10 bits of node id and
+// 12 bits of per-millisecond sequence. Ids from one node are strictly increasing and
+// ids from different nodes never collide, as long as every node has its own node id.
+// There is no safe default for it, so startup fails when it is not configured.
+//
+// Ids are rendered in fixed-width Crockford base32, so string order matches id
+// (and therefore time) order and the characters cannot be misread (no I, L, O, U).
 @Component
+@Slf4j
 public class TransactionIdGenerator {
 
     private static final DateTimeFormatter FORMATTER =
             DateTimeFormatter.ofPattern("yyyyMMdd");
 
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13; // 63 bits in 5-bit digits
+
+    @Value("${app.id-generator.node-id:-1}")
+    private long nodeId;
+
+    // Last issued (timestamp << SEQUENCE_BITS | sequence)
+    private final AtomicLong state = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("app.id-generator.node-id (NODE_ID) must be set to a value " +
+                    "between 0 and " + MAX_NODE_ID + " that no other running instance uses");
+        }
+        log.info("Generating ids as node {}", nodeId);
+    }
+
     public String generateTransactionRef() {
-        String date = LocalDateTime.now().format(FORMATTER);
-        String uniqueId = UUID.randomUUID().toString()
-                .substring(0, 8).toUpperCase();
-        return "TXN-" + date + "-" + uniqueId;
+        long id = nextId();
+        String date = Instant.ofEpochMilli(timestampOf(id))
+                .atZone(ZoneId.systemDefault())
+                .format(FORMATTER);
+        return "TXN-" + date + "-" + encode(id);
     }
 
     public String generateWalletNumber() {
-        return "WLT" + System.currentTimeMillis() +
-                (int)(Math.random() * 1000);
+        return "WLT" + encode(nextId());
+    }
+
+    public long nextId() {
+        while (true) {
+            long last = state.get();
+            long now = System.currentTimeMillis() - EPOCH;
+
+            // Within the same millisecond, or if the clock moved backwards, keep counting
+            // on the last timestamp. A full sequence carries into the timestamp bits, which
+            // borrows the next millisecond instead of spinning until it arrives.
+            long next = now > (last >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : last + 1;
+
+            if (state.compareAndSet(last, next)) {
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                        | nodeId << SEQUENCE_BITS
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    private static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    private static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
     }
-}
\ No newline at end of file
+}
@@ -1,29 +1,44 @@
 package com.fintech.digiwallet.service;
 
 import com.fintech.digiwallet.domain.entity.Transaction;
-import com.fintech.digiwallet.domain.entity.Wallet;
+import com.fintech.digiwallet.domain.entity.WalletActivity;
+import com.fintech.digiwallet.domain.enums.Currency;
 import com.fintech.digiwallet.domain.enums.TransactionStatus;
 import com.fintech.digiwallet.domain.enums.TransactionType;
+import com.fintech.digiwallet.domain.projection.WalletBalance;
+import com.fintech.digiwallet.domain.projection.WalletMetadata;
 import com.fintech.digiwallet.domain.repository.TransactionEventPublisher;
 import com.fintech.digiwallet.domain.repository.TransactionRepository;
+import com.fintech.digiwallet.domain.repository.WalletActivityRepository;
+import com.fintech.digiwallet.domain.value.Money;
 import com.fintech.digiwallet.dto.event.TransactionEvent;
 import com.fintech.digiwallet.dto.mapper.TransactionMapper;
+import com.fintech.digiwallet.dto.mapper.WalletActivityMapper;
 import com.fintech.digiwallet.dto.request.DepositRequest;
 import com.fintech.digiwallet.dto.request.TransferRequest;
 import com.fintech.digiwallet.dto.request.WithdrawalRequest;
+import com.fintech.digiwallet.dto.response.CursorPageResponse;
 import com.fintech.digiwallet.dto.response.TransactionResponse;
-import com.fintech.digiwallet.exception.InsufficientFundsException;
 import com.fintech.digiwallet.exception.InvalidTransactionException;
+import com.fintech.digiwallet.service.activity.WalletActivityService;
+import com.fintech.digiwallet.service.fraud.velocity.VelocityTracker;
+import com.fintech.digiwallet.service.history.TransactionCursor;
+import com.fintech.digiwallet.service.transfer.TransferExecutor;
+import com.fintech.digiwallet.service.transfer.TransferGroupCommitter;
+import com.fintech.digiwallet.service.transfer.TransferLockingStrategy;
+import com.fintech.digiwallet.service.transfer.TransferOutcome;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -36,16 +51,27 @@ public class TransactionService {
     private final LedgerService ledgerService;
     private final IdempotencyService idempotencyService;
     private final FraudDetectionService fraudDetectionService;
+    private final VelocityTracker velocityTracker;
     private final TransactionMapper transactionMapper;
+    private final WalletActivityService walletActivityService;
+    private final WalletActivityRepository walletActivityRepository;
+    private final WalletActivityMapper walletActivityMapper;
     private final TransactionIdGenerator idGenerator;
+    private final TransferLockingStrategy transferLockingStrategy;
+    private final TransferExecutor transferExecutor;
+    private final TransferGroupCommitter transferGroupCommitter;
+    private final TransactionTemplate transactionTemplate;
 
     // ✅ Interface ONLY (Kafka-safe)
     private final TransactionEventPublisher eventPublisher;
 
-    private static final BigDecimal FEE_PERCENTAGE = new BigDecimal("0.01"); // 1% fee
+    private static final long FEE_BASIS_POINTS = 100; // 1% fee
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
 
     // ===================== TRANSFER =====================
-    @Transactional
+    // Not @Transactional: each attempt runs in its own transaction (or, with group
+    // commit enabled, its own savepoint of a batch transaction) so that a deadlock
+    // or lock conflict can be retried from a clean state.
     public TransactionResponse transfer(TransferRequest request) {
         log.info("Processing transfer from {} to {}",
                 request.getSourceWalletNumber(), request.getDestinationWalletNumber());
@@ -53,85 +79,63 @@ public class TransactionService {
         idempotencyService.checkAndStore(request.getIdempotencyKey());
 
         try {
-            validateTransfer(request);
-
-            Wallet sourceWallet = walletService.findWalletByNumber(
-                    request.getSourceWalletNumber());
-            Wallet destinationWallet = walletService.findWalletByNumber(
-                    request.getDestinationWalletNumber());
-
-            if (sourceWallet.getId().equals(destinationWallet.getId())) {
-                throw new InvalidTransactionException("Cannot transfer to the same wallet");
-            }
-
-            if (!sourceWallet.getCurrency().equals(destinationWallet.getCurrency())) {
-                throw new InvalidTransactionException("Currency mismatch between wallets");
-            }
-
-            BigDecimal fee = calculateFee(request.getAmount());
-            BigDecimal totalAmount = request.getAmount().add(fee);
+            TransferOutcome outcome = transferLockingStrategy.executeWithRetry(
+                    () -> transferGroupCommitter.isEnabled()
+                            ? transferGroupCommitter.submit(
+                                    request.getSourceWalletNumber(),
+                                    () -> executeTransfer(request))
+                            : transactionTemplate.execute(status -> executeTransfer(request)));
 
-            fraudDetectionService.checkTransaction(
-                    sourceWallet, totalAmount, "TRANSFER");
+            publishTransactionCompletedEvent(outcome);
 
-            if (sourceWallet.getAvailableBalance().compareTo(totalAmount) < 0) {
-                throw new InsufficientFundsException(
-                        "Insufficient funds. Available: " +
-                                sourceWallet.getAvailableBalance());
-            }
+            idempotencyService.markCompleted(
+                    request.getIdempotencyKey(),
+                    outcome.response().getTransactionRef());
 
-            Transaction transaction = Transaction.builder()
-                    .transactionRef(idGenerator.generateTransactionRef())
-                    .sourceWallet(sourceWallet)
-                    .destinationWallet(destinationWallet)
-                    .transactionType(TransactionType.TRANSFER)
-                    .status(TransactionStatus.PROCESSING)
-                    .amount(request.getAmount())
-                    .currency(request.getCurrency())
-                    .fee(fee)
-                    .description(request.getDescription())
-                    .idempotencyKey(request.getIdempotencyKey())
-                    .metadata(new HashMap<>())
-                    .build();
+            return outcome.response();
 
-            transaction = transactionRepository.save(transaction);
-
-            walletService.reserveFunds(sourceWallet.getId(), totalAmount);
+        } catch (Exception e) {
+            idempotencyService.markFailed(request.getIdempotencyKey());
+            throw e;
+        }
+    }
 
-            try {
-                walletService.releaseFunds(sourceWallet.getId(), totalAmount);
-                walletService.updateBalance(destinationWallet.getId(), request.getAmount());
+    private TransferOutcome executeTransfer(TransferRequest request) {
+        validateTransfer(request);
 
-                ledgerService.createTransferLedgerEntries(
-                        transaction, sourceWallet, destinationWallet);
+        WalletMetadata sourceWallet = walletService.getWalletMetadata(
+                request.getSourceWalletNumber());
+        WalletMetadata destinationWallet = walletService.getWalletMetadata(
+                request.getDestinationWalletNumber());
 
-                transaction.setStatus(TransactionStatus.COMPLETED);
-                transaction.setCompletedAt(LocalDateTime.now());
-                transaction = transactionRepository.save(transaction);
+        if (sourceWallet.id().equals(destinationWallet.id())) {
+            throw new InvalidTransactionException("Cannot transfer to the same wallet");
+        }
 
-                publishTransactionCompletedEvent(transaction);
+        if (!sourceWallet.currency().equals(destinationWallet.currency())) {
+            throw new InvalidTransactionException("Currency mismatch between wallets");
+        }
 
-                idempotencyService.markCompleted(
-                        request.getIdempotencyKey(),
-                        transaction.getTransactionRef());
+        requireActive(sourceWallet);
+        requireActive(destinationWallet);
 
-                return transactionMapper.toResponse(transaction);
+        Money amount = toMoney(request.getAmount(), sourceWallet.currency());
+        Money fee = calculateFee(amount);
+        Money totalAmount = amount.plus(fee);
 
-            } catch (Exception e) {
-                walletService.updateBalance(sourceWallet.getId(), totalAmount);
+        fraudDetectionService.checkTransaction(
+                sourceWallet, destinationWallet.id(), totalAmount, "TRANSFER");
+        fraudDetectionService.recordDailySpend(sourceWallet, totalAmount);
 
-                transaction.setStatus(TransactionStatus.FAILED);
-                transaction.setFailureReason(e.getMessage());
-                transactionRepository.save(transaction);
+        // No balance pre-check: the conditional debit is the authoritative check and
+        // fails with InsufficientFundsException without a separate balance read.
 
-                idempotencyService.markFailed(request.getIdempotencyKey());
-                throw new RuntimeException("Transfer failed", e);
-            }
+        TransferOutcome outcome = transferExecutor.execute(
+                request, sourceWallet, destinationWallet, fee.toBigDecimal());
+        walletActivityService.recordTransfer(outcome);
+        velocityTracker.recordAfterCommit(sourceWallet, destinationWallet.id());
 
-        } catch (Exception e) {
-            idempotencyService.markFailed(request.getIdempotencyKey());
-            throw e;
-        }
+        return outcome;
     }
 
     // ===================== DEPOSIT =====================
@@ -141,11 +145,14 @@ public class TransactionService {
 
         idempotencyService.checkAndStore(request.getIdempotencyKey());
 
-        Wallet wallet = walletService.findWalletByNumber(request.getWalletNumber());
+        WalletMetadata wallet = walletService.getWalletMetadata(request.getWalletNumber());
+        requireActive(wallet);
+        // Incoming money: the fraud rules and the daily limit cover outgoing amounts only
+        toMoney(request.getAmount(), wallet.currency());
 
         Transaction transaction = Transaction.builder()
                 .transactionRef(idGenerator.generateTransactionRef())
-                .destinationWallet(wallet)
+                .destinationWallet(walletService.getWalletReference(wallet.id()))
                 .transactionType(TransactionType.DEPOSIT)
                 .status(TransactionStatus.PROCESSING)
                 .amount(request.getAmount())
@@ -158,18 +165,25 @@ public class TransactionService {
 
         transaction = transactionRepository.save(transaction);
 
-        walletService.updateBalance(wallet.getId(), request.getAmount());
-        ledgerService.createDepositLedgerEntry(transaction, wallet);
+        WalletBalance balance = walletService.creditFunds(
+                wallet, request.getAmount(), transaction.getTransactionRef());
+        BigDecimal balanceAfter = wallet.balanceAfter(balance.balance());
+        ledgerService.createDepositLedgerEntry(
+                transaction, transaction.getDestinationWallet(), balanceAfter);
 
         transaction.setStatus(TransactionStatus.COMPLETED);
         transaction.setCompletedAt(LocalDateTime.now());
         transaction = transactionRepository.save(transaction);
 
+        TransactionResponse response = transactionMapper.toResponse(
+                transaction, null, wallet.walletNumber());
+        walletActivityService.recordDeposit(response, wallet.id(), balanceAfter);
+
         idempotencyService.markCompleted(
                 request.getIdempotencyKey(),
                 transaction.getTransactionRef());
 
-        return transactionMapper.toResponse(transaction);
+        return response;
     }
 
     // ===================== WITHDRAW =====================
@@ -179,15 +193,16 @@ public class TransactionService {
 
         idempotencyService.checkAndStore(request.getIdempotencyKey());
 
-        Wallet wallet = walletService.findWalletByNumber(request.getWalletNumber());
+        WalletMetadata wallet = walletService.getWalletMetadata(request.getWalletNumber());
+        requireActive(wallet);
+        Money amount = toMoney(request.getAmount(), wallet.currency());
 
-        if (wallet.getAvailableBalance().compareTo(request.getAmount()) < 0) {
-            throw new InsufficientFundsException("Insufficient funds");
-        }
+        fraudDetectionService.checkTransaction(wallet, null, amount, "WITHDRAWAL");
 
+        // Insufficient funds are reported by the conditional debit below
         Transaction transaction = Transaction.builder()
                 .transactionRef(idGenerator.generateTransactionRef())
-                .sourceWallet(wallet)
+                .sourceWallet(walletService.getWalletReference(wallet.id()))
                 .transactionType(TransactionType.WITHDRAWAL)
                 .status(TransactionStatus.PROCESSING)
                 .amount(request.getAmount())
@@ -200,18 +215,27 @@ public class TransactionService {
 
         transaction = transactionRepository.save(transaction);
 
-        walletService.updateBalance(wallet.getId(), request.getAmount().negate());
-        ledgerService.createWithdrawalLedgerEntry(transaction, wallet);
+        fraudDetectionService.recordDailySpend(wallet, amount);
+        WalletBalance balance = walletService.debitFunds(
+                wallet.id(), request.getAmount());
+        BigDecimal balanceAfter = wallet.balanceAfter(balance.balance());
+        ledgerService.createWithdrawalLedgerEntry(
+                transaction, transaction.getSourceWallet(), balanceAfter);
 
         transaction.setStatus(TransactionStatus.COMPLETED);
         transaction.setCompletedAt(LocalDateTime.now());
         transaction = transactionRepository.save(transaction);
 
+        TransactionResponse response = transactionMapper.toResponse(
+                transaction, wallet.walletNumber(), null);
+        walletActivityService.recordWithdrawal(response, wallet.id(), balanceAfter);
+        velocityTracker.recordAfterCommit(wallet, null);
+
         idempotencyService.markCompleted(
                 request.getIdempotencyKey(),
                 transaction.getTransactionRef());
 
-        return transactionMapper.toResponse(transaction);
+        return response;
     }
 
     // ===================== QUERIES =====================
@@ -227,12 +251,41 @@ public class TransactionService {
     public Page<TransactionResponse> getWalletTransactions(
             String walletNumber, Pageable pageable) {
 
-        Wallet wallet = walletService.findWalletByNumber(walletNumber);
+        WalletMetadata wallet = walletService.getWalletMetadata(walletNumber);
+
+        return walletActivityRepository.findByWalletId(wallet.id(), pageable)
+                .map(walletActivityMapper::toResponse);
+    }
+
+    // Keyset pagination over the wallet_activity read model: no count query, and the
+    // cost of a page does not grow with how deep into the history it is.
+    @Transactional(readOnly = true)
+    public CursorPageResponse<TransactionResponse> getWalletTransactionHistory(
+            String walletNumber, String cursorToken, int limit) {
+
+        WalletMetadata wallet = walletService.getWalletMetadata(walletNumber);
+        TransactionCursor cursor = TransactionCursor.decode(cursorToken);
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+
+        // One extra row tells whether there is a next page
+        List<WalletActivity> rows = walletActivityRepository.findPageBefore(
+                wallet.id(), cursor.createdAt(), cursor.id(), pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<TransactionResponse> page = walletActivityMapper.toResponseList(
+                hasMore ? rows.subList(0, pageSize) : rows);
+
+        String nextCursor = null;
+        if (hasMore) {
+            TransactionResponse last = page.get(page.size() - 1);
+            nextCursor = new TransactionCursor(last.getCreatedAt(), last.getId()).encode();
+        }
 
-        return transactionRepository
-                .findBySourceWalletIdOrDestinationWalletId(
-                        wallet.getId(), wallet.getId(), pageable)
-                .map(transactionMapper::toResponse);
+        return CursorPageResponse.<TransactionResponse>builder()
+                .items(page)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
     // ===================== HELPERS =====================
@@ -242,19 +295,34 @@ public class TransactionService {
         }
     }
 
-    private BigDecimal calculateFee(BigDecimal amount) {
-        return amount.multiply(FEE_PERCENTAGE)
-                .setScale(2, BigDecimal.ROUND_HALF_UP);
+    private void requireActive(WalletMetadata wallet) {
+        if (!wallet.active()) {
+            throw new InvalidTransactionException(
+                    "Wallet is not active: " + wallet.walletNumber());
+        }
     }
 
-    private void publishTransactionCompletedEvent(Transaction transaction) {
+    // Amounts must be whole minor units of the wallet currency (no fractions of a cent)
+    private Money toMoney(BigDecimal amount, Currency currency) {
+        if (!Money.fitsMinorUnits(amount, currency)) {
+            throw new InvalidTransactionException(
+                    "Amount has more decimal places than " + currency + " allows");
+        }
+        return Money.of(amount, currency);
+    }
+
+    private Money calculateFee(Money amount) {
+        return amount.basisPoints(FEE_BASIS_POINTS, RoundingMode.HALF_UP);
+    }
+
+    private void publishTransactionCompletedEvent(TransferOutcome outcome) {
+        TransactionResponse transaction = outcome.response();
+
         TransactionEvent event = TransactionEvent.builder()
                 .transactionId(transaction.getId())
                 .transactionRef(transaction.getTransactionRef())
-                .sourceWalletId(transaction.getSourceWallet() != null ?
-                        transaction.getSourceWallet().getId() : null)
-                .destinationWalletId(transaction.getDestinationWallet() != null ?
-                        transaction.getDestinationWallet().getId() : null)
+                .sourceWalletId(outcome.sourceWalletId())
+                .destinationWalletId(outcome.destinationWalletId())
                 .transactionType(transaction.getTransactionType())
                 .status(transaction.getStatus())
                 .amount(transaction.getAmount())
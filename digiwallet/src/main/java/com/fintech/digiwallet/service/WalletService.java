@@ -2,21 +2,37 @@ package com.fintech.digiwallet.service;
 
 import com.fintech.digiwallet.domain.entity.User;
 import com.fintech.digiwallet.domain.entity.Wallet;
+import com.fintech.digiwallet.domain.projection.WalletBalance;
+import com.fintech.digiwallet.domain.projection.WalletMetadata;
+import com.fintech.digiwallet.domain.repository.WalletBalanceRepository;
 import com.fintech.digiwallet.domain.repository.UserRepository;
 import com.fintech.digiwallet.domain.repository.WalletRepository;
+import com.fintech.digiwallet.domain.value.Money;
 import com.fintech.digiwallet.dto.request.CreateWalletRequest;
 import com.fintech.digiwallet.dto.response.BalanceResponse;
+import com.fintech.digiwallet.dto.response.BalanceSeriesResponse;
+import com.fintech.digiwallet.dto.response.HistoricalBalanceResponse;
 import com.fintech.digiwallet.dto.response.WalletResponse;
 import com.fintech.digiwallet.dto.mapper.WalletMapper;
+import com.fintech.digiwallet.exception.InsufficientFundsException;
 import com.fintech.digiwallet.exception.UserNotFoundException;
 import com.fintech.digiwallet.exception.WalletNotFoundException;
+import com.fintech.digiwallet.service.ledger.checkpoint.LedgerCheckpointService;
+import com.fintech.digiwallet.service.ledger.checkpoint.LedgerCheckpointService.SeriesInterval;
+import com.fintech.digiwallet.service.wallet.WalletBalanceCache;
+import com.fintech.digiwallet.service.wallet.WalletMetadataCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -25,9 +41,13 @@ import java.util.UUID;
 public class WalletService {
 
     private final WalletRepository walletRepository;
+    private final WalletBalanceRepository walletBalanceRepository;
     private final UserRepository userRepository;
     private final WalletMapper walletMapper;
     private final TransactionIdGenerator idGenerator;
+    private final WalletMetadataCache walletMetadataCache;
+    private final WalletBalanceCache walletBalanceCache;
+    private final LedgerCheckpointService ledgerCheckpointService;
 
     @Transactional
     public WalletResponse createWallet(CreateWalletRequest request) {
@@ -76,59 +96,167 @@ public class WalletService {
         return walletMapper.toResponseList(wallets);
     }
 
-    @Transactional(readOnly = true)
+    // Served from the balance cache; striped wallets take credits without bumping the
+    // version of their wallets row, so they are always read from the database.
     public BalanceResponse getWalletBalance(String walletNumber) {
-        Wallet wallet = findWalletByNumber(walletNumber);
+        WalletMetadata wallet = getWalletMetadata(walletNumber);
+
+        WalletBalance balance = wallet.stripeCount() > 0
+                ? loadStripedBalance(wallet.id())
+                : walletBalanceCache.get(wallet.id(), () -> loadBalance(wallet.id()));
 
         return BalanceResponse.builder()
-                .currency(wallet.getCurrency())
-                .totalBalance(wallet.getBalance())
-                .availableBalance(wallet.getAvailableBalance())
-                .pendingBalance(wallet.getPendingBalance())
+                .currency(wallet.currency())
+                .totalBalance(balance.balance())
+                .availableBalance(balance.availableBalance())
+                .pendingBalance(balance.pendingBalance())
                 .build();
     }
 
-    @Transactional
-    public void updateBalance(UUID walletId, BigDecimal amount) {
-        Wallet wallet = walletRepository.findById(walletId)
-                .orElseThrow(() -> new WalletNotFoundException(
-                        "Wallet not found with id: " + walletId));
+    // Ledger balance as of the given time
+    public HistoricalBalanceResponse getWalletBalanceAt(String walletNumber, LocalDateTime at) {
+        WalletMetadata wallet = getWalletMetadata(walletNumber);
 
-        wallet.setBalance(wallet.getBalance().add(amount));
-        wallet.setAvailableBalance(wallet.getAvailableBalance().add(amount));
+        return HistoricalBalanceResponse.builder()
+                .walletNumber(wallet.walletNumber())
+                .currency(wallet.currency())
+                .at(at)
+                .balance(ledgerCheckpointService.getBalanceAt(wallet.id(), at))
+                .build();
+    }
+
+    public BalanceSeriesResponse getWalletBalanceSeries(String walletNumber, LocalDateTime from,
+                                                        LocalDateTime to, String interval) {
+        WalletMetadata wallet = getWalletMetadata(walletNumber);
+        SeriesInterval seriesInterval = SeriesInterval.from(interval);
+
+        List<BalanceSeriesResponse.Point> points = ledgerCheckpointService
+                .getBalanceSeries(wallet.id(), from, to, seriesInterval).stream()
+                .map(point -> new BalanceSeriesResponse.Point(point.at(), point.balance()))
+                .toList();
+
+        return BalanceSeriesResponse.builder()
+                .walletNumber(wallet.walletNumber())
+                .currency(wallet.currency())
+                .interval(seriesInterval.name())
+                .points(points)
+                .build();
+    }
+
+    @Transactional
+    public WalletBalance updateBalance(UUID walletId, BigDecimal amount) {
+        WalletBalance balance = walletBalanceRepository.applyDelta(walletId, amount)
+                .orElseThrow(() -> balanceUpdateRejected(walletId,
+                        "Insufficient available balance"));
 
-        walletRepository.save(wallet);
+        walletBalanceCache.invalidateAfterCommit(walletId, balance.version());
         log.debug("Wallet balance updated: {} by {}", walletId, amount);
+        return balance;
     }
 
+    // Credits to a striped wallet land on one of its stripes, picked by the spread key,
+    // so concurrent credits do not queue on the wallets row.
     @Transactional
-    public void reserveFunds(UUID walletId, BigDecimal amount) {
-        Wallet wallet = walletRepository.findById(walletId)
+    public WalletBalance creditFunds(WalletMetadata wallet, BigDecimal amount, String spreadKey) {
+        int stripes = wallet.stripeCount();
+        if (stripes <= 0) {
+            return updateBalance(wallet.id(), amount);
+        }
+
+        int stripe = Math.floorMod(spreadKey.hashCode(), stripes);
+        WalletBalance balance = walletBalanceRepository.creditStripe(wallet.id(), stripe, amount)
                 .orElseThrow(() -> new WalletNotFoundException(
-                        "Wallet not found with id: " + walletId));
+                        "Wallet not found with id: " + wallet.id()));
+
+        log.debug("Wallet {} credited {} on stripe {}", wallet.id(), amount, stripe);
+        return balance;
+    }
 
-        if (wallet.getAvailableBalance().compareTo(amount) < 0) {
-            throw new IllegalStateException("Insufficient available balance");
+    // Debits only draw from the wallets row; when that is short, the stripes are
+    // folded into it and the debit is tried once more.
+    @Transactional
+    public WalletBalance debitFunds(UUID walletId, BigDecimal amount) {
+        Optional<WalletBalance> balance = walletBalanceRepository.applyDelta(walletId, amount.negate());
+        if (balance.isEmpty() && consolidateStripes(walletId)) {
+            balance = walletBalanceRepository.applyDelta(walletId, amount.negate());
         }
 
-        wallet.setAvailableBalance(wallet.getAvailableBalance().subtract(amount));
-        wallet.setPendingBalance(wallet.getPendingBalance().add(amount));
+        WalletBalance debited = balance.orElseThrow(() -> balanceUpdateRejected(walletId,
+                "Insufficient available balance"));
 
-        walletRepository.save(wallet);
-        log.debug("Funds reserved: {} from wallet {}", amount, walletId);
+        walletBalanceCache.invalidateAfterCommit(walletId, debited.version());
+        log.debug("Wallet balance updated: {} by {}", walletId, amount.negate());
+        return debited;
     }
 
+    // Wallet row first, then its stripes: the same order transfers take them in
     @Transactional
-    public void releaseFunds(UUID walletId, BigDecimal amount) {
-        Wallet wallet = walletRepository.findById(walletId)
-                .orElseThrow(() -> new WalletNotFoundException(
-                        "Wallet not found with id: " + walletId));
+    public boolean consolidateStripes(UUID walletId) {
+        return walletBalanceRepository.lockForUpdate(walletId)
+                && walletBalanceRepository.consolidateStripes(walletId);
+    }
+
+    // Available balance including credits still parked on stripes; sub-minor-unit
+    // remainders in the stored NUMERIC(19,4) balance are not spendable
+    public Money getAvailableBalance(Wallet wallet) {
+        return Money.of(wallet.getAvailableBalance().add(stripedBalance(wallet)),
+                wallet.getCurrency(), RoundingMode.DOWN);
+    }
+
+    @Transactional
+    public WalletBalance reserveFunds(UUID walletId, BigDecimal amount) {
+        WalletBalance balance = walletBalanceRepository.reserve(walletId, amount)
+                .orElseThrow(() -> balanceUpdateRejected(walletId,
+                        "Insufficient available balance"));
+
+        walletBalanceCache.invalidateAfterCommit(walletId, balance.version());
+        log.debug("Funds reserved: {} from wallet {}", amount, walletId);
+        return balance;
+    }
 
-        wallet.setBalance(wallet.getBalance().subtract(amount));
-        wallet.setPendingBalance(wallet.getPendingBalance().subtract(amount));
+    @Transactional
+    public WalletBalance releaseFunds(UUID walletId, BigDecimal amount) {
+        WalletBalance balance = walletBalanceRepository.release(walletId, amount)
+                .orElseThrow(() -> balanceUpdateRejected(walletId,
+                        "Insufficient pending balance"));
 
-        walletRepository.save(wallet);
+        walletBalanceCache.invalidateAfterCommit(walletId, balance.version());
         log.debug("Funds released: {} from wallet {}", amount, walletId);
+        return balance;
+    }
+
+    @Transactional
+    public WalletResponse deactivateWallet(String walletNumber, UUID userId) {
+        Wallet wallet = findWalletByNumber(walletNumber);
+        // Someone else's wallet is reported like a missing one
+        if (!wallet.getUser().getId().equals(userId)) {
+            throw new WalletNotFoundException("Wallet not found with number: " + walletNumber);
+        }
+        wallet.setIsActive(false);
+        Wallet savedWallet = walletRepository.save(wallet);
+
+        // Evicting before commit would let a concurrent lookup re-cache the active row
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                walletMetadataCache.evict(walletNumber);
+            }
+        });
+
+        log.info("Wallet deactivated: {}", walletNumber);
+        return walletMapper.toResponse(savedWallet);
+    }
+
+    // Cached lookup for the transaction paths; see WalletMetadataCache for how fresh each field is
+    public WalletMetadata getWalletMetadata(String walletNumber) {
+        return walletMetadataCache.get(walletNumber)
+                .orElseThrow(() -> new WalletNotFoundException(
+                        "Wallet not found with number: " + walletNumber));
+    }
+
+    // Association target for new rows; does not load the wallet
+    public Wallet getWalletReference(UUID walletId) {
+        return walletRepository.getReferenceById(walletId);
     }
 
     // Helper method
@@ -137,4 +265,33 @@ public class WalletService {
                 .orElseThrow(() -> new WalletNotFoundException(
                         "Wallet not found with number: " + walletNumber));
     }
+
+    private WalletBalance loadBalance(UUID walletId) {
+        return walletBalanceRepository.find(walletId)
+                .orElseThrow(() -> new WalletNotFoundException(
+                        "Wallet not found with id: " + walletId));
+    }
+
+    private WalletBalance loadStripedBalance(UUID walletId) {
+        WalletBalance balance = loadBalance(walletId);
+        BigDecimal striped = walletBalanceRepository.sumStripes(walletId);
+        return new WalletBalance(walletId, balance.balance().add(striped),
+                balance.availableBalance().add(striped), balance.pendingBalance(), balance.version());
+    }
+
+    private BigDecimal stripedBalance(Wallet wallet) {
+        if (wallet.getStripeCount() <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return walletBalanceRepository.sumStripes(wallet.getId());
+    }
+
+    // A conditional update that matched no row means either an unknown wallet or a
+    // failed balance guard; only this failure path pays for the extra lookup.
+    private RuntimeException balanceUpdateRejected(UUID walletId, String reason) {
+        if (!walletRepository.existsById(walletId)) {
+            return new WalletNotFoundException("Wallet not found with id: " + walletId);
+        }
+        return new InsufficientFundsException(reason);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.fintech.digiwallet.service.activity;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+// POST /actuator/walletactivity {"from": "2024-05-01", "to": "2024-06-01"} fills in
+// and corrects the wallet_activity read model from ledger_entries of that range
+// (everything by default), e.g. after a schema change or a suspected drift
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "walletactivity")
+public class WalletActivityEndpoint {
+
+    private final WalletActivityService walletActivityService;
+
+    @WriteOperation
+    public WalletActivityService.RebuildResult rebuild(@Nullable String from, @Nullable String to) {
+        return walletActivityService.rebuild(
+                from != null ? LocalDate.parse(from).atStartOfDay() : null,
+                to != null ? LocalDate.parse(to).atStartOfDay() : null);
+    }
+}
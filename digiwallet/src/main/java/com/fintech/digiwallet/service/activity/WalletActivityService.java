@@ -0,0 +1,131 @@
+package com.fintech.digiwallet.service.activity;
+
+import com.fintech.digiwallet.domain.entity.EntityIds;
+import com.fintech.digiwallet.domain.enums.AccountType;
+import com.fintech.digiwallet.dto.response.TransactionResponse;
+import com.fintech.digiwallet.service.transfer.TransferOutcome;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Maintains the wallet_activity read model. Rows are written inside the transaction
+// that moves the money, so the model never shows a movement that rolled back.
+// Inserts ignore movements that are already there and a rebuild only adds or
+// corrects rows, which keeps it safe next to live traffic.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WalletActivityService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO wallet_activity (id, wallet_id, wallet_number, transaction_id, " +
+                    "transaction_ref, transaction_type, status, direction, amount, fee, currency, " +
+                    "counterparty_wallet_number, description, balance_after, completed_at, created_at) " +
+                    "VALUES (:id, :walletId, :walletNumber, :transactionId, :transactionRef, " +
+                    ":transactionType, :status, :direction, :amount, :fee, :currency, " +
+                    ":counterpartyWalletNumber, :description, :balanceAfter, :completedAt, :createdAt) " +
+                    "ON CONFLICT (wallet_id, transaction_id, direction) DO NOTHING";
+
+    // One row per ledger entry; the counterparty is the other side of the transaction.
+    // Existing rows are corrected, never removed: months already archived from the
+    // ledger and entries the journal has not projected yet keep their activity.
+    private static final String REBUILD_SQL =
+            "INSERT INTO wallet_activity (id, wallet_id, wallet_number, transaction_id, " +
+                    "transaction_ref, transaction_type, status, direction, amount, fee, currency, " +
+                    "counterparty_wallet_number, description, balance_after, completed_at, created_at) " +
+                    "SELECT le.id, le.wallet_id, w.wallet_number, t.id, t.transaction_ref, " +
+                    "t.transaction_type, t.status, le.entry_type, t.amount, t.fee, t.currency, " +
+                    "cw.wallet_number, t.description, le.balance_after, t.completed_at, t.created_at " +
+                    "FROM ledger_entries le " +
+                    "JOIN transactions t ON t.id = le.transaction_id " +
+                    "JOIN wallets w ON w.id = le.wallet_id " +
+                    "LEFT JOIN wallets cw ON cw.id = CASE WHEN le.entry_type = 'DEBIT' " +
+                    "THEN t.destination_wallet_id ELSE t.source_wallet_id END " +
+                    "WHERE le.created_at >= :from AND le.created_at < :to " +
+                    "ON CONFLICT (wallet_id, transaction_id, direction) DO UPDATE SET " +
+                    "status = EXCLUDED.status, amount = EXCLUDED.amount, fee = EXCLUDED.fee, " +
+                    "counterparty_wallet_number = EXCLUDED.counterparty_wallet_number, " +
+                    "description = EXCLUDED.description, balance_after = EXCLUDED.balance_after, " +
+                    "completed_at = EXCLUDED.completed_at";
+
+    // Bounds of a rebuild without a range; partitions outside it are pruned anyway
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void recordTransfer(TransferOutcome outcome) {
+        TransactionResponse transaction = outcome.response();
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, new MapSqlParameterSource[]{
+                movement(transaction, outcome.sourceWalletId(), transaction.getSourceWalletNumber(),
+                        AccountType.DEBIT, transaction.getDestinationWalletNumber(),
+                        outcome.sourceBalanceAfter()),
+                movement(transaction, outcome.destinationWalletId(),
+                        transaction.getDestinationWalletNumber(), AccountType.CREDIT,
+                        transaction.getSourceWalletNumber(), outcome.destinationBalanceAfter())
+        });
+    }
+
+    @Transactional
+    public void recordDeposit(TransactionResponse transaction, UUID walletId, BigDecimal balanceAfter) {
+        jdbcTemplate.update(INSERT_SQL, movement(transaction, walletId,
+                transaction.getDestinationWalletNumber(), AccountType.CREDIT, null, balanceAfter));
+    }
+
+    @Transactional
+    public void recordWithdrawal(TransactionResponse transaction, UUID walletId, BigDecimal balanceAfter) {
+        jdbcTemplate.update(INSERT_SQL, movement(transaction, walletId,
+                transaction.getSourceWalletNumber(), AccountType.DEBIT, null, balanceAfter));
+    }
+
+    // Inserts missing rows and corrects existing ones for ledger entries created in
+    // [from, to); either bound may be null
+    @Transactional
+    public RebuildResult rebuild(LocalDateTime from, LocalDateTime to) {
+        long started = System.currentTimeMillis();
+
+        int upserted = jdbcTemplate.update(REBUILD_SQL, new MapSqlParameterSource()
+                .addValue("from", from != null ? from : EARLIEST)
+                .addValue("to", to != null ? to : LATEST));
+
+        long durationMs = System.currentTimeMillis() - started;
+        log.info("Wallet activity rebuilt from ledger entries in [{}, {}): {} rows upserted in {} ms",
+                from, to, upserted, durationMs);
+        return new RebuildResult(upserted, durationMs);
+    }
+
+    private MapSqlParameterSource movement(TransactionResponse transaction, UUID walletId,
+                                           String walletNumber, AccountType direction,
+                                           String counterpartyWalletNumber, BigDecimal balanceAfter) {
+        return new MapSqlParameterSource()
+                .addValue("id", EntityIds.newId())
+                .addValue("walletId", walletId)
+                .addValue("walletNumber", walletNumber)
+                .addValue("transactionId", transaction.getId())
+                .addValue("transactionRef", transaction.getTransactionRef())
+                .addValue("transactionType", transaction.getTransactionType().name())
+                .addValue("status", transaction.getStatus().name())
+                .addValue("direction", direction.name())
+                .addValue("amount", transaction.getAmount())
+                .addValue("fee", transaction.getFee())
+                .addValue("currency", transaction.getCurrency().name())
+                .addValue("counterpartyWalletNumber", counterpartyWalletNumber)
+                .addValue("description", transaction.getDescription())
+                // Null on striped wallets, see WalletMetadata.balanceAfter
+                .addValue("balanceAfter", balanceAfter, Types.NUMERIC)
+                .addValue("completedAt", transaction.getCompletedAt())
+                .addValue("createdAt", transaction.getCreatedAt());
+    }
+
+    public record RebuildResult(int upserted, long durationMs) {}
+}
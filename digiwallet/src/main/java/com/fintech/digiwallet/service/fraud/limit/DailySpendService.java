@@ -0,0 +1,141 @@
+package com.fintech.digiwallet.service.fraud.limit;
+
+import com.fintech.digiwallet.domain.projection.WalletMetadata;
+import com.fintech.digiwallet.domain.value.Money;
+import com.fintech.digiwallet.exception.TransactionLimitExceededException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Outgoing amount per wallet and local calendar day, kept in wallet_daily_spend.
+//
+// Every debit upserts its day's row in the debit's own transaction and gets the new
+// total back, so the limit is enforced against the committed aggregate without ever
+// summing transactions; the row lock also serializes concurrent debits of one
+// wallet. Committed totals are kept in a small local cache for the read-only fraud
+// pre-check, which may lag other nodes by up to its TTL.
+@Service
+@Slf4j
+public class DailySpendService {
+
+    private static final String RECORD_SQL = """
+            INSERT INTO wallet_daily_spend (wallet_id, spend_date, amount, transaction_count, updated_at)
+            VALUES (:walletId, :spendDate, :amount, 1, CURRENT_TIMESTAMP)
+            ON CONFLICT (wallet_id, spend_date) DO UPDATE
+            SET amount = wallet_daily_spend.amount + EXCLUDED.amount,
+                transaction_count = wallet_daily_spend.transaction_count + 1,
+                updated_at = CURRENT_TIMESTAMP
+            RETURNING amount
+            """;
+
+    private static final String FIND_SQL =
+            "SELECT amount FROM wallet_daily_spend WHERE wallet_id = :walletId AND spend_date = :spendDate";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM wallet_daily_spend WHERE spend_date < :before";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Cache<DayKey, BigDecimal> committedTotals;
+    private final Map<String, ZoneId> zones = new ConcurrentHashMap<>();
+
+    @Value("${app.fraud.daily-spend.retention-days:35}")
+    private int retentionDays;
+
+    public DailySpendService(NamedParameterJdbcTemplate jdbcTemplate,
+                             @Value("${app.fraud.daily-spend.cache-ttl-seconds:60}") long cacheTtlSeconds,
+                             @Value("${app.fraud.daily-spend.cache-max-size:100000}") long cacheMaxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.committedTotals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .maximumSize(cacheMaxSize)
+                .build();
+    }
+
+    // Today's committed spend, from the cache or one primary key read
+    public Money spentToday(WalletMetadata wallet) {
+        DayKey key = new DayKey(wallet.id(), today(wallet));
+        BigDecimal total = committedTotals.get(key, k -> jdbcTemplate.query(FIND_SQL,
+                        params(k), (rs, rowNum) -> rs.getBigDecimal("amount"))
+                .stream()
+                .findFirst()
+                .orElse(BigDecimal.ZERO));
+        return Money.of(total, wallet.currency(), RoundingMode.HALF_UP);
+    }
+
+    // Must run inside the debit's transaction; throws (rolling it back) when the new
+    // total would exceed the limit
+    public Money recordSpend(WalletMetadata wallet, Money amount, Optional<Money> dailyLimit) {
+        DayKey key = new DayKey(wallet.id(), today(wallet));
+        BigDecimal total = jdbcTemplate.queryForObject(RECORD_SQL,
+                params(key).addValue("amount", amount.toBigDecimal()), BigDecimal.class);
+        Money spent = Money.of(total, wallet.currency(), RoundingMode.HALF_UP);
+
+        if (dailyLimit.isPresent() && spent.compareTo(dailyLimit.get()) > 0) {
+            log.warn("Daily limit exceeded for wallet {}: {} of {}",
+                    wallet.walletNumber(), spent, dailyLimit.get());
+            throw new TransactionLimitExceededException(
+                    "Daily transaction limit of " + dailyLimit.get() + " exceeded");
+        }
+
+        // Group commit drops this hook when the transfer rolls back to its savepoint,
+        // so a total that never committed is not cached
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committedTotals.put(key, total);
+                }
+            });
+        }
+        return spent;
+    }
+
+    @Scheduled(cron = "${app.fraud.daily-spend.purge-cron:0 45 4 * * *}")
+    public void purge() {
+        int deleted = jdbcTemplate.update(PURGE_SQL, new MapSqlParameterSource()
+                .addValue("before", LocalDate.now().minusDays(retentionDays)));
+        log.info("Purged {} daily spend rows older than {} days", deleted, retentionDays);
+    }
+
+    private LocalDate today(WalletMetadata wallet) {
+        return LocalDate.now(zones.computeIfAbsent(wallet.timeZone(), this::parseZone));
+    }
+
+    // V20 rejects unknown names, but a zone the database knows and the JVM does not
+    // must not fail every debit of the wallet
+    private ZoneId parseZone(String timeZone) {
+        try {
+            return ZoneId.of(timeZone);
+        } catch (DateTimeException e) {
+            log.warn("Unknown wallet time zone '{}', using UTC for daily limits", timeZone);
+            return ZoneOffset.UTC;
+        }
+    }
+
+    private static MapSqlParameterSource params(DayKey key) {
+        return new MapSqlParameterSource()
+                .addValue("walletId", key.walletId())
+                .addValue("spendDate", key.day());
+    }
+
+    private record DayKey(UUID walletId, LocalDate day) {}
+}
@@ -0,0 +1,43 @@
+package com.fintech.digiwallet.service.fraud.rules;
+
+import com.fintech.digiwallet.domain.enums.Currency;
+import com.fintech.digiwallet.domain.enums.FraudRiskLevel;
+import com.fintech.digiwallet.domain.value.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Single transaction amount against a threshold, kept in minor units per currency
+record AmountThresholdRule(Map<Currency, Money> thresholds) implements FraudRuleEvaluator {
+
+    static AmountThresholdRule of(BigDecimal threshold) {
+        Map<Currency, Money> thresholds = new EnumMap<>(Currency.class);
+        for (Currency currency : Currency.values()) {
+            thresholds.put(currency, Money.of(threshold, currency, RoundingMode.HALF_UP));
+        }
+        return new AmountThresholdRule(Map.copyOf(thresholds));
+    }
+
+    @Override
+    public FraudRiskLevel evaluate(FraudCheck check) {
+        Money amount = check.amount();
+        Money threshold = thresholds.get(amount.currency());
+
+        // 75% is compared as amount * 4 >= threshold * 3 to stay in whole minor units
+        if (amount.isGreaterThanOrEqual(threshold.times(2))) {
+            return FraudRiskLevel.CRITICAL;
+        } else if (amount.isGreaterThanOrEqual(threshold)) {
+            return FraudRiskLevel.HIGH;
+        } else if (amount.times(4).isGreaterThanOrEqual(threshold.times(3))) {
+            return FraudRiskLevel.MEDIUM;
+        }
+        return FraudRiskLevel.LOW;
+    }
+
+    @Override
+    public boolean isInline() {
+        return true;
+    }
+}
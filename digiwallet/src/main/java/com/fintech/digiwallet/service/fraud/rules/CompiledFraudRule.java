@@ -0,0 +1,22 @@
+package com.fintech.digiwallet.service.fraud.rules;
+
+public record CompiledFraudRule(
+        String name,
+        String ruleType,
+        int priority,
+        String action,
+        FailurePolicy failurePolicy,
+        FraudRuleEvaluator evaluator
+) {
+
+    // What a rule that errors or misses the scoring budget contributes: OPEN ignores
+    // it, CLOSED counts it as HIGH so the transaction is blocked
+    public enum FailurePolicy {
+        OPEN,
+        CLOSED;
+
+        static FailurePolicy from(Object value, FailurePolicy defaultPolicy) {
+            return value == null ? defaultPolicy : valueOf(value.toString().trim().toUpperCase());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.fintech.digiwallet.service.fraud.rules;
+
+import com.fintech.digiwallet.domain.enums.Currency;
+import com.fintech.digiwallet.domain.enums.FraudRiskLevel;
+import com.fintech.digiwallet.domain.value.Money;
+import com.fintech.digiwallet.exception.TransactionLimitExceededException;
+import com.fintech.digiwallet.service.fraud.limit.DailySpendService;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Today's outgoing amount plus this transaction against a daily maximum. This is the
+// early, cached check; DailySpendService.recordSpend enforces the limit atomically.
+record DailyLimitRule(Map<Currency, Money> limits, DailySpendService dailySpendService)
+        implements FraudRuleEvaluator {
+
+    // Limited to one currency when given, otherwise the same amount in every currency
+    static DailyLimitRule of(BigDecimal maxDailyAmount, Currency currency,
+                             DailySpendService dailySpendService) {
+        Map<Currency, Money> limits = new EnumMap<>(Currency.class);
+        for (Currency candidate : Currency.values()) {
+            if (currency == null || currency == candidate) {
+                limits.put(candidate, Money.of(maxDailyAmount, candidate, RoundingMode.HALF_UP));
+            }
+        }
+        return new DailyLimitRule(Map.copyOf(limits), dailySpendService);
+    }
+
+    Optional<Money> limit(Currency currency) {
+        return Optional.ofNullable(limits.get(currency));
+    }
+
+    @Override
+    public FraudRiskLevel evaluate(FraudCheck check) {
+        Money limit = limits.get(check.amount().currency());
+        if (limit == null) {
+            return FraudRiskLevel.LOW;
+        }
+
+        Money total = dailySpendService.spentToday(check.wallet()).plus(check.amount());
+        if (total.compareTo(limit) > 0) {
+            throw new TransactionLimitExceededException(
+                    "Daily transaction limit of " + limit + " exceeded");
+        }
+        return total.times(4).isGreaterThanOrEqual(limit.times(3))
+                ? FraudRiskLevel.MEDIUM : FraudRiskLevel.LOW;
+    }
+
+    // Usually a cache hit; on a miss the read must use the caller's connection rather
+    // than take a second one from the pool on a scoring thread
+    @Override
+    public boolean isInline() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "DailyLimitRule" + limits;
+    }
+}
@@ -0,0 +1,10 @@
+package com.fintech.digiwallet.service.fraud.rules;
+
+import com.fintech.digiwallet.domain.projection.WalletMetadata;
+import com.fintech.digiwallet.domain.value.Money;
+
+import java.util.UUID;
+
+// The counterparty is the destination wallet of a transfer, null otherwise
+public record FraudCheck(WalletMetadata wallet, UUID counterpartyWalletId, Money amount,
+                         String transactionType) {}
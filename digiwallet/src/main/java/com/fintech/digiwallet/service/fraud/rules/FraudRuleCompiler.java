@@ -0,0 +1,137 @@
+package com.fintech.digiwallet.service.fraud.rules;
+
+import com.fintech.digiwallet.domain.enums.Currency;
+import com.fintech.digiwallet.service.fraud.limit.DailySpendService;
+import com.fintech.digiwallet.service.fraud.velocity.VelocityTracker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Turns a fraud_rules row into a typed evaluator. Config values are parsed here,
+// once per reload, instead of on every transaction.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FraudRuleCompiler {
+
+    private static final Pattern VELOCITY_KEY = Pattern.compile(
+            "max_(transactions|transfers|counterparties)_per_(?:(\\d+)_)?(second|minute|hour|day)s?");
+
+    private final VelocityTracker velocityTracker;
+    private final DailySpendService dailySpendService;
+
+    @Value("${app.fraud.velocity-check-enabled:true}")
+    private boolean velocityCheckEnabled;
+
+    @Value("${app.fraud.max-transactions-per-hour:10}")
+    private int maxTransactionsPerHour;
+
+    @Value("${app.fraud.suspicious-amount-threshold:100000}")
+    private BigDecimal suspiciousAmountThreshold;
+
+    // Empty for rules that can never raise the risk level
+    public Optional<FraudRuleEvaluator> compile(String ruleType, Map<String, Object> config) {
+        switch (ruleType) {
+            case "VELOCITY_CHECK":
+                if (!velocityCheckEnabled) {
+                    return Optional.empty();
+                }
+                List<VelocityRule.Limit> limits = velocityLimits(config);
+                return limits.isEmpty()
+                        ? Optional.empty()
+                        : Optional.of(new VelocityRule(limits, velocityTracker));
+
+            case "AMOUNT_THRESHOLD":
+                // The seeded "Max Daily Transaction Limit" rule is an amount threshold
+                // carrying only max_daily_amount
+                if (config.containsKey("max_daily_amount") && !config.containsKey("threshold_amount")) {
+                    return Optional.of(dailyLimit(config));
+                }
+                return Optional.of(AmountThresholdRule.of(
+                        readDecimal(config, "threshold_amount", suspiciousAmountThreshold)));
+
+            case "DAILY_LIMIT":
+                return Optional.of(dailyLimit(config));
+
+            default:
+                return Optional.empty();
+        }
+    }
+
+    // Every max_<measure>_per_[<n>_]<unit> key is one limit, e.g. max_transactions_per_hour,
+    // max_transfers_per_5_minutes or max_counterparties_per_24_hours. Without any, the
+    // rule limits transactions per hour by the app.fraud default.
+    private List<VelocityRule.Limit> velocityLimits(Map<String, Object> config) {
+        List<VelocityRule.Limit> limits = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : config.entrySet()) {
+            Matcher matcher = VELOCITY_KEY.matcher(entry.getKey());
+            if (!matcher.matches()) {
+                log.warn("Ignoring unknown velocity rule setting: {}", entry.getKey());
+                continue;
+            }
+            VelocityRule.Measure measure = VelocityRule.Measure.valueOf(matcher.group(1).toUpperCase());
+            long units = matcher.group(2) != null ? Long.parseLong(matcher.group(2)) : 1;
+            Duration window = Duration.of(units,
+                    ChronoUnit.valueOf(matcher.group(3).toUpperCase() + "S"));
+            velocityLimit(measure, window, readLong(config, entry.getKey(), 0))
+                    .ifPresent(limits::add);
+        }
+
+        if (config.isEmpty()) {
+            velocityLimit(VelocityRule.Measure.TRANSACTIONS, Duration.ofHours(1), maxTransactionsPerHour)
+                    .ifPresent(limits::add);
+        }
+        return limits;
+    }
+
+    // Counted over the shortest configured window covering the rule's window; a rule
+    // window longer than all configured ones cannot be answered and is skipped
+    private Optional<VelocityRule.Limit> velocityLimit(VelocityRule.Measure measure, Duration window,
+                                                       long max) {
+        Optional<Duration> counted = measure == VelocityRule.Measure.COUNTERPARTIES
+                ? velocityTracker.counterpartyWindow(window)
+                : velocityTracker.transactionWindow(window);
+
+        if (counted.isEmpty()) {
+            log.warn("No velocity window covers {} for {}; add it to the configured windows",
+                    window, measure);
+            return Optional.empty();
+        }
+        if (!counted.get().equals(window)) {
+            log.warn("Velocity window {} for {} is counted over {}", window, measure, counted.get());
+        }
+        return Optional.of(VelocityRule.Limit.of(measure, counted.get(), max));
+    }
+
+    private DailyLimitRule dailyLimit(Map<String, Object> config) {
+        Object currency = config.get("currency");
+        return DailyLimitRule.of(
+                new BigDecimal(config.get("max_daily_amount").toString()),
+                currency != null ? Currency.valueOf(currency.toString()) : null,
+                dailySpendService);
+    }
+
+    private static long readLong(Map<String, Object> config, String key, long defaultValue) {
+        Object value = config.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value instanceof Number number ? number.longValue() : Long.parseLong(value.toString());
+    }
+
+    private static BigDecimal readDecimal(Map<String, Object> config, String key, BigDecimal defaultValue) {
+        Object value = config.get(key);
+        return value == null ? defaultValue : new BigDecimal(value.toString());
+    }
+}
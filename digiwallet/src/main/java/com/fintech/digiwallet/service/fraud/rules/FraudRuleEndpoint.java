@@ -0,0 +1,48 @@
+package com.fintech.digiwallet.service.fraud.rules;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// /actuator/fraudrules: GET shows the loaded rule set, POST reloads it right away
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "fraudrules")
+public class FraudRuleEndpoint {
+
+    private final FraudRuleEngine fraudRuleEngine;
+
+    @ReadOperation
+    public Map<String, Object> ruleSet() {
+        return describe(fraudRuleEngine.getCurrent());
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload() {
+        return describe(fraudRuleEngine.reload());
+    }
+
+    private Map<String, Object> describe(FraudRuleSet ruleSet) {
+        List<Map<String, Object>> rules = ruleSet.rules().stream()
+                .map(rule -> {
+                    Map<String, Object> description = new LinkedHashMap<>();
+                    description.put("name", rule.name());
+                    description.put("type", rule.ruleType());
+                    description.put("priority", rule.priority());
+                    description.put("action", rule.action());
+                    description.put("failurePolicy", rule.failurePolicy());
+                    return description;
+                })
+                .toList();
+        return Map.of(
+                "version", ruleSet.version(),
+                "loadedAt", ruleSet.loadedAt().toString(),
+                "rules", rules);
+    }
+}
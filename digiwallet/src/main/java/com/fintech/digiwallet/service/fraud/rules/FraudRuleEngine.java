@@ -0,0 +1,134 @@
+package com.fintech.digiwallet.service.fraud.rules;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fintech.digiwallet.domain.enums.FraudRiskLevel;
+import com.fintech.digiwallet.service.fraud.rules.CompiledFraudRule.FailurePolicy;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Holds the compiled active fraud rules as one immutable snapshot. Evaluation only
+// reads the current snapshot; a reload compiles a complete new one and swaps it in.
+// Scoring a transaction against the snapshot is left to FraudScoringPipeline.
+//
+// Reloads happen when fraud_rule_set_version (bumped by a trigger on fraud_rules)
+// moves, checked on a short poll, or on demand through /actuator/fraudrules. Rules
+// are read with plain JDBC against the fraud_rules columns created in V8.
+@Component
+@Slf4j
+public class FraudRuleEngine {
+
+    private static final String VERSION_SQL =
+            "SELECT version FROM fraud_rule_set_version WHERE id = 1";
+
+    private static final String ACTIVE_RULES_SQL =
+            "SELECT name, rule_type, config, COALESCE(priority, 0) AS priority, action " +
+                    "FROM fraud_rules WHERE enabled = TRUE " +
+                    "ORDER BY COALESCE(priority, 0) DESC, name";
+
+    // Per-rule override of app.fraud.scoring.default-failure-policy, "open" or "closed"
+    private static final String FAILURE_POLICY_KEY = "failure_policy";
+
+    private static final TypeReference<Map<String, Object>> CONFIG_TYPE = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final FraudRuleCompiler compiler;
+    private final ObjectMapper objectMapper;
+    private final FraudScoringPipeline scoringPipeline;
+    private final FailurePolicy defaultFailurePolicy;
+    private final AtomicReference<FraudRuleSet> current = new AtomicReference<>(FraudRuleSet.empty());
+
+    public FraudRuleEngine(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           FraudRuleCompiler compiler,
+                           ObjectMapper objectMapper,
+                           FraudScoringPipeline scoringPipeline,
+                           @Value("${app.fraud.scoring.default-failure-policy:open}") String defaultFailurePolicy) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.compiler = compiler;
+        this.objectMapper = objectMapper;
+        this.scoringPipeline = scoringPipeline;
+        this.defaultFailurePolicy = FailurePolicy.from(defaultFailurePolicy, FailurePolicy.OPEN);
+        // Version and rules must come from the same snapshot
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @PostConstruct
+    void init() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            // Keep starting; the poll retries until the rules load
+            log.error("Failed to load fraud rules", e);
+        }
+    }
+
+    public FraudRiskLevel assess(FraudCheck check) {
+        return scoringPipeline.score(current.get(), check);
+    }
+
+    @Scheduled(fixedDelayString = "${app.fraud.rules.poll-interval-ms:5000}")
+    public void poll() {
+        Long version = jdbcTemplate.queryForObject(VERSION_SQL, Long.class);
+        if (version != null && version != current.get().version()) {
+            reload();
+        }
+    }
+
+    public FraudRuleSet reload() {
+        FraudRuleSet loaded = snapshotTransaction.execute(status -> {
+            Long version = jdbcTemplate.queryForObject(VERSION_SQL, Long.class);
+            List<CompiledFraudRule> rules = new ArrayList<>();
+
+            jdbcTemplate.query(ACTIVE_RULES_SQL, rs -> {
+                String name = rs.getString("name");
+                String ruleType = rs.getString("rule_type");
+                int priority = rs.getInt("priority");
+                String action = rs.getString("action");
+                try {
+                    Map<String, Object> config = new HashMap<>(parseConfig(rs.getString("config")));
+                    FailurePolicy failurePolicy = FailurePolicy.from(
+                            config.remove(FAILURE_POLICY_KEY), defaultFailurePolicy);
+                    compiler.compile(ruleType, config)
+                            .ifPresent(evaluator -> rules.add(new CompiledFraudRule(
+                                    name, ruleType, priority, action, failurePolicy, evaluator)));
+                } catch (Exception e) {
+                    // A broken rule is left out rather than failing the whole set
+                    log.error("Skipping fraud rule {} with invalid config", name, e);
+                }
+            });
+
+            return new FraudRuleSet(version != null ? version : 0, List.copyOf(rules), Instant.now());
+        });
+
+        FraudRuleSet previous = current.getAndSet(loaded);
+        log.info("Loaded fraud rule set version {} ({} rules, was version {})",
+                loaded.version(), loaded.rules().size(), previous.version());
+        return loaded;
+    }
+
+    public FraudRuleSet getCurrent() {
+        return current.get();
+    }
+
+    private Map<String, Object> parseConfig(String config) throws Exception {
+        return config == null || config.isBlank() ? Map.of() : objectMapper.readValue(config, CONFIG_TYPE);
+    }
+}
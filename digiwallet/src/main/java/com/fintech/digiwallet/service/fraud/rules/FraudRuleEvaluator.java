@@ -0,0 +1,15 @@
+package com.fintech.digiwallet.service.fraud.rules;
+
+import com.fintech.digiwallet.domain.enums.FraudRiskLevel;
+
+// A fraud rule with its configuration already parsed; must be immutable
+@FunctionalInterface
+public interface FraudRuleEvaluator {
+
+    FraudRiskLevel evaluate(FraudCheck check);
+
+    // Pure in-memory rules run on the calling thread instead of the scoring executor
+    default boolean isInline() {
+        return false;
+    }
+}
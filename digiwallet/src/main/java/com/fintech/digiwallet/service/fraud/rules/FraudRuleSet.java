@@ -0,0 +1,26 @@
+package com.fintech.digiwallet.service.fraud.rules;
+
+import com.fintech.digiwallet.domain.enums.Currency;
+import com.fintech.digiwallet.domain.value.Money;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+// Active rules in priority order, compiled from one version of fraud_rules
+public record FraudRuleSet(long version, List<CompiledFraudRule> rules, Instant loadedAt) {
+
+    public static FraudRuleSet empty() {
+        return new FraudRuleSet(-1, List.of(), Instant.now());
+    }
+
+    // The strictest daily limit that applies to the currency, if any
+    public Optional<Money> dailyLimit(Currency currency) {
+        return rules.stream()
+                .map(CompiledFraudRule::evaluator)
+                .filter(DailyLimitRule.class::isInstance)
+                .map(evaluator -> ((DailyLimitRule) evaluator).limit(currency))
+                .flatMap(Optional::stream)
+                .min(Money::compareTo);
+    }
+}
@@ -0,0 +1,205 @@
+package com.fintech.digiwallet.service.fraud.rules;
+
+import com.fintech.digiwallet.domain.enums.FraudRiskLevel;
+import com.fintech.digiwallet.exception.TransactionLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Scores one transaction against a rule set within a fixed time budget. Inline rules
+// run first on the calling thread; the others run concurrently on a bounded pool.
+// Any CRITICAL result ends scoring and cancels the rules still running.
+//
+// A rule that throws, is rejected by a full pool or has not answered when the budget
+// runs out is settled by its failure policy. TransactionLimitExceededException is a
+// verdict, not a failure, and always reaches the caller.
+//
+// Every evaluation is timed in fraud.rule.evaluation, tagged by rule and outcome
+// (risk level, error, timeout or rejected), with histogram buckets for percentiles.
+@Component
+@Slf4j
+public class FraudScoringPipeline {
+
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final long budgetNanos;
+    private final Timer assessments;
+    private final Map<TimerKey, Timer> evaluationTimers = new ConcurrentHashMap<>();
+
+    public FraudScoringPipeline(MeterRegistry meterRegistry,
+                                @Value("${app.fraud.scoring.threads:8}") int threads,
+                                @Value("${app.fraud.scoring.queue-capacity:1000}") int queueCapacity,
+                                @Value("${app.fraud.scoring.budget-ms:50}") long budgetMillis) {
+        this.meterRegistry = meterRegistry;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "fraud-scoring-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.assessments = Timer.builder("fraud.assessment")
+                .description("Time to score a transaction against all fraud rules")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public FraudRiskLevel score(FraudRuleSet ruleSet, FraudCheck check) {
+        long started = System.nanoTime();
+        try {
+            return evaluate(ruleSet.rules(), check, started + budgetNanos);
+        } finally {
+            assessments.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private FraudRiskLevel evaluate(List<CompiledFraudRule> rules, FraudCheck check, long deadline) {
+        FraudRiskLevel maxRiskLevel = FraudRiskLevel.LOW;
+
+        List<CompiledFraudRule> concurrent = new ArrayList<>();
+        for (CompiledFraudRule rule : rules) {
+            if (!rule.evaluator().isInline()) {
+                concurrent.add(rule);
+                continue;
+            }
+            maxRiskLevel = max(maxRiskLevel, evaluateInline(rule, check));
+            if (maxRiskLevel == FraudRiskLevel.CRITICAL) {
+                return maxRiskLevel;
+            }
+        }
+        if (concurrent.isEmpty()) {
+            return maxRiskLevel;
+        }
+
+        ExecutorCompletionService<FraudRiskLevel> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<FraudRiskLevel>, CompiledFraudRule> pending = new HashMap<>();
+        try {
+            for (CompiledFraudRule rule : concurrent) {
+                try {
+                    pending.put(completion.submit(() -> timed(rule, check)), rule);
+                } catch (RejectedExecutionException e) {
+                    record(rule, "rejected", 0);
+                    maxRiskLevel = max(maxRiskLevel, onFailure(rule, "rejected by a full scoring pool"));
+                }
+            }
+
+            while (!pending.isEmpty() && maxRiskLevel != FraudRiskLevel.CRITICAL) {
+                long remaining = deadline - System.nanoTime();
+                Future<FraudRiskLevel> done = remaining > 0
+                        ? completion.poll(remaining, TimeUnit.NANOSECONDS)
+                        : null;
+                if (done == null) {
+                    break;
+                }
+                CompiledFraudRule rule = pending.remove(done);
+                maxRiskLevel = max(maxRiskLevel, result(rule, done));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pending.keySet().forEach(future -> future.cancel(true));
+        }
+
+        // Whatever is still pending missed the budget, unless CRITICAL already decided
+        if (maxRiskLevel != FraudRiskLevel.CRITICAL) {
+            for (CompiledFraudRule rule : pending.values()) {
+                record(rule, "timeout", budgetNanos);
+                maxRiskLevel = max(maxRiskLevel, onFailure(rule, "over the scoring budget"));
+            }
+        }
+        return maxRiskLevel;
+    }
+
+    private FraudRiskLevel evaluateInline(CompiledFraudRule rule, FraudCheck check) {
+        try {
+            return timed(rule, check);
+        } catch (TransactionLimitExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error evaluating fraud rule: {}", rule.name(), e);
+            return onFailure(rule, "failed");
+        }
+    }
+
+    private FraudRiskLevel result(CompiledFraudRule rule, Future<FraudRiskLevel> done) {
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TransactionLimitExceededException limitExceeded) {
+                throw limitExceeded;
+            }
+            log.error("Error evaluating fraud rule: {}", rule.name(), e.getCause());
+            return onFailure(rule, "failed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return onFailure(rule, "interrupted");
+        }
+    }
+
+    private FraudRiskLevel timed(CompiledFraudRule rule, FraudCheck check) {
+        long started = System.nanoTime();
+        String outcome = "error";
+        try {
+            FraudRiskLevel riskLevel = rule.evaluator().evaluate(check);
+            outcome = riskLevel.name().toLowerCase();
+            return riskLevel;
+        } catch (TransactionLimitExceededException e) {
+            outcome = "limit_exceeded";
+            throw e;
+        } finally {
+            record(rule, outcome, System.nanoTime() - started);
+        }
+    }
+
+    private FraudRiskLevel onFailure(CompiledFraudRule rule, String reason) {
+        if (rule.failurePolicy() == CompiledFraudRule.FailurePolicy.CLOSED) {
+            log.warn("Fraud rule {} {}; failing closed", rule.name(), reason);
+            return FraudRiskLevel.HIGH;
+        }
+        log.warn("Fraud rule {} {}; failing open", rule.name(), reason);
+        return FraudRiskLevel.LOW;
+    }
+
+    // Built once per rule and outcome; the registry lookup is not free on every check
+    private void record(CompiledFraudRule rule, String outcome, long nanos) {
+        evaluationTimers.computeIfAbsent(new TimerKey(rule.name(), outcome), key ->
+                        Timer.builder("fraud.rule.evaluation")
+                                .description("Fraud rule evaluation time")
+                                .tag("rule", key.rule())
+                                .tag("outcome", key.outcome())
+                                .publishPercentileHistogram()
+                                .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private record TimerKey(String rule, String outcome) {}
+
+    private static FraudRiskLevel max(FraudRiskLevel a, FraudRiskLevel b) {
+        return b.ordinal() > a.ordinal() ? b : a;
+    }
+}
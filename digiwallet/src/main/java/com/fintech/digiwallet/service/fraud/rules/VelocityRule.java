@@ -0,0 +1,71 @@
+package com.fintech.digiwallet.service.fraud.rules;
+
+import com.fintech.digiwallet.domain.enums.FraudRiskLevel;
+import com.fintech.digiwallet.service.fraud.velocity.VelocityTracker;
+
+import java.time.Duration;
+import java.util.List;
+
+// One or more windowed limits, e.g. max_transfers_per_5_minutes, each compared
+// with the activity so far; the rule's risk is the highest of its limits
+record VelocityRule(List<Limit> limits, VelocityTracker velocityTracker) implements FraudRuleEvaluator {
+
+    enum Measure {
+        // Outgoing transactions of the wallet's user
+        TRANSACTIONS,
+        // Transfers of the wallet's user
+        TRANSFERS,
+        // Distinct wallets the source wallet transferred to, estimated by HyperLogLog
+        COUNTERPARTIES
+    }
+
+    // window is the counted window: the configured one covering the rule's window
+    record Limit(Measure measure, Duration window, long max, long mediumAt) {
+
+        static Limit of(Measure measure, Duration window, long max) {
+            // MEDIUM from 75% of the maximum, rounded up to whole transactions
+            return new Limit(measure, window, max, (max * 3 + 3) / 4);
+        }
+    }
+
+    @Override
+    public FraudRiskLevel evaluate(FraudCheck check) {
+        FraudRiskLevel highest = FraudRiskLevel.LOW;
+        for (Limit limit : limits) {
+            FraudRiskLevel riskLevel = evaluate(limit, observed(limit, check));
+            if (riskLevel.ordinal() > highest.ordinal()) {
+                highest = riskLevel;
+            }
+        }
+        return highest;
+    }
+
+    // Only a Redis round trip is worth handing to the scoring executor
+    @Override
+    public boolean isInline() {
+        return velocityTracker.isLocal();
+    }
+
+    private long observed(Limit limit, FraudCheck check) {
+        return switch (limit.measure()) {
+            case TRANSACTIONS -> velocityTracker.userTransactions(check.wallet().userId(), limit.window());
+            case TRANSFERS -> "TRANSFER".equals(check.transactionType())
+                    ? velocityTracker.userTransfers(check.wallet().userId(), limit.window())
+                    : 0;
+            case COUNTERPARTIES -> check.counterpartyWalletId() != null
+                    ? velocityTracker.walletCounterparties(check.wallet().id(), limit.window())
+                    : 0;
+        };
+    }
+
+    private static FraudRiskLevel evaluate(Limit limit, long recent) {
+        if (recent >= limit.max() * 2) {
+            return FraudRiskLevel.CRITICAL;
+        } else if (recent >= limit.max()) {
+            return FraudRiskLevel.HIGH;
+        } else if (recent >= limit.mediumAt()) {
+            return FraudRiskLevel.MEDIUM;
+        }
+        return FraudRiskLevel.LOW;
+    }
+}
@@ -0,0 +1,20 @@
+package com.fintech.digiwallet.service.fraud.velocity;
+
+import java.time.Duration;
+import java.util.UUID;
+
+// Approximate distinct counterparties per key in sliding windows, kept as
+// HyperLogLog sketches so fan-out checks never scan transactions
+public interface CounterpartySketchStore {
+
+    VelocityWindows windows();
+
+    // True when estimates are answered from this process's memory, without I/O
+    default boolean isLocal() {
+        return false;
+    }
+
+    void add(String key, UUID counterparty, long nowMillis);
+
+    long distinct(String key, Duration window, long nowMillis);
+}
@@ -0,0 +1,73 @@
+package com.fintech.digiwallet.service.fraud.velocity;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+// Distinct-count sketch in 2^precision one-byte registers. The standard error is
+// about 1.04 / sqrt(2^precision); small counts, the usual case for counterparties,
+// are estimated by linear counting and are close to exact.
+final class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registers;
+
+    HyperLogLog(int precision) {
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    static long hash(UUID value) {
+        // UUIDv7 ids are mostly timestamp; both halves go through the mixer
+        return mix(value.getMostSignificantBits() ^ mix(value.getLeastSignificantBits()));
+    }
+
+    void add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), 64 - precision) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    // Register-wise maximum into target, i.e. the sketch of the union
+    void mergeInto(byte[] target) {
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] > target[i]) {
+                target[i] = registers[i];
+            }
+        }
+    }
+
+    void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    static long estimate(byte[] registers) {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double alpha = m >= 128 ? 0.7213 / (1 + 1.079 / m) : m >= 64 ? 0.709 : m >= 32 ? 0.697 : 0.673;
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    // MurmurHash3 64-bit finalizer
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
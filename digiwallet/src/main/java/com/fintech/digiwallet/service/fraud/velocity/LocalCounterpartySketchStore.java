@@ -0,0 +1,78 @@
+package com.fintech.digiwallet.service.fraud.velocity;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+// Sketches in this node's memory only. Each key costs at most
+// windows x buckets x 2^precision bytes, and the cache is bounded by total bytes.
+@Component
+@ConditionalOnProperty(name = "app.fraud.velocity.store", havingValue = "local", matchIfMissing = true)
+public class LocalCounterpartySketchStore implements CounterpartySketchStore {
+
+    private final VelocityWindows windows;
+    private final int precision;
+    private final Cache<String, SlidingWindowSketch[]> sketches;
+
+    public LocalCounterpartySketchStore(
+            @Value("${app.fraud.velocity.counterparties.windows:1h,24h}") String windows,
+            @Value("${app.fraud.velocity.counterparties.buckets-per-window:6}") int bucketsPerWindow,
+            @Value("${app.fraud.velocity.counterparties.precision:8}") int precision,
+            @Value("${app.fraud.velocity.counterparties.local-max-bytes:268435456}") long maxBytes) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("Sketch precision must be between 4 and 16: " + precision);
+        }
+        this.windows = new VelocityWindows(windows, bucketsPerWindow);
+        this.precision = precision;
+
+        int bytesPerKey = this.windows.getWindows().size() * bucketsPerWindow * (1 << precision);
+        this.sketches = Caffeine.newBuilder()
+                .expireAfterAccess(this.windows.getLongest())
+                .maximumWeight(maxBytes)
+                .weigher((String key, SlidingWindowSketch[] value) -> bytesPerKey)
+                .build();
+    }
+
+    @Override
+    public VelocityWindows windows() {
+        return windows;
+    }
+
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+
+    @Override
+    public void add(String key, UUID counterparty, long nowMillis) {
+        long hash = HyperLogLog.hash(counterparty);
+        for (SlidingWindowSketch sketch : sketches(key, nowMillis)) {
+            sketch.add(hash, nowMillis);
+        }
+    }
+
+    @Override
+    public long distinct(String key, Duration window, long nowMillis) {
+        int index = windows.indexOf(window);
+        SlidingWindowSketch[] windowSketches = sketches.getIfPresent(key);
+        return windowSketches == null ? 0 : windowSketches[index].estimate(nowMillis);
+    }
+
+    private SlidingWindowSketch[] sketches(String key, long nowMillis) {
+        return sketches.get(key, k -> {
+            List<Duration> configured = windows.getWindows();
+            SlidingWindowSketch[] created = new SlidingWindowSketch[configured.size()];
+            for (int i = 0; i < created.length; i++) {
+                created[i] = new SlidingWindowSketch(windows.bucketMillis(configured.get(i)),
+                        windows.getBucketsPerWindow(), precision, nowMillis);
+            }
+            return created;
+        });
+    }
+}
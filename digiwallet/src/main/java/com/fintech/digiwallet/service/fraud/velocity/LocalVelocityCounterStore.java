@@ -0,0 +1,65 @@
+package com.fintech.digiwallet.service.fraud.velocity;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+// Counters in this node's memory only. Keys idle for longer than the longest
+// window are evicted, and the key count is capped.
+@Component
+@ConditionalOnProperty(name = "app.fraud.velocity.store", havingValue = "local", matchIfMissing = true)
+public class LocalVelocityCounterStore implements VelocityCounterStore {
+
+    private final VelocityWindows windows;
+    private final Cache<String, SlidingWindowCounter[]> counters;
+
+    public LocalVelocityCounterStore(VelocityWindows windows,
+                                     @Value("${app.fraud.velocity.local-max-keys:1000000}") long maxKeys) {
+        this.windows = windows;
+        this.counters = Caffeine.newBuilder()
+                .expireAfterAccess(windows.getLongest())
+                .maximumSize(maxKeys)
+                .build();
+    }
+
+    @Override
+    public VelocityWindows windows() {
+        return windows;
+    }
+
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+
+    @Override
+    public void increment(String key, long nowMillis) {
+        for (SlidingWindowCounter counter : counters(key, nowMillis)) {
+            counter.increment(nowMillis);
+        }
+    }
+
+    @Override
+    public long count(String key, Duration window, long nowMillis) {
+        int index = windows.indexOf(window);
+        SlidingWindowCounter[] windowCounters = counters.getIfPresent(key);
+        return windowCounters == null ? 0 : windowCounters[index].count(nowMillis);
+    }
+
+    private SlidingWindowCounter[] counters(String key, long nowMillis) {
+        return counters.get(key, k -> {
+            List<Duration> configured = windows.getWindows();
+            SlidingWindowCounter[] created = new SlidingWindowCounter[configured.size()];
+            for (int i = 0; i < created.length; i++) {
+                created[i] = new SlidingWindowCounter(windows.bucketMillis(configured.get(i)),
+                        windows.getBucketsPerWindow(), nowMillis);
+            }
+            return created;
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package com.fintech.digiwallet.service.fraud.velocity;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Sketches shared by all nodes: one Redis HyperLogLog per key, window and bucket,
+// expiring once the bucket has left its window. An add is one script call; a count
+// is one PFCOUNT over the window's buckets, which Redis answers from their union.
+// Redis fixes the sketch size (at most 12 KB, much less while sparse), so memory is
+// bounded by the bucket count and the expiry rather than a precision setting.
+@Component
+@ConditionalOnProperty(name = "app.fraud.velocity.store", havingValue = "redis")
+public class RedisCounterpartySketchStore implements CounterpartySketchStore {
+
+    private static final String KEY_PREFIX = "counterparties:";
+
+    // KEYS: current bucket of each window; ARGV[1]: element, ARGV[i + 1]: ttl of KEYS[i]
+    private static final RedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>(
+            "for i, key in ipairs(KEYS) do " +
+                    "redis.call('PFADD', key, ARGV[1]) " +
+                    "redis.call('EXPIRE', key, ARGV[i + 1]) " +
+                    "end " +
+                    "return #KEYS",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final VelocityWindows windows;
+
+    public RedisCounterpartySketchStore(
+            RedisTemplate<String, String> redisTemplate,
+            @Value("${app.fraud.velocity.counterparties.windows:1h,24h}") String windows,
+            @Value("${app.fraud.velocity.counterparties.buckets-per-window:6}") int bucketsPerWindow) {
+        this.redisTemplate = redisTemplate;
+        this.windows = new VelocityWindows(windows, bucketsPerWindow);
+    }
+
+    @Override
+    public VelocityWindows windows() {
+        return windows;
+    }
+
+    @Override
+    public void add(String key, UUID counterparty, long nowMillis) {
+        List<String> keys = new ArrayList<>();
+        List<String> args = new ArrayList<>();
+        args.add(counterparty.toString());
+        for (Duration window : windows.getWindows()) {
+            long bucketMillis = windows.bucketMillis(window);
+            keys.add(bucketKey(key, window, nowMillis / bucketMillis));
+            args.add(Long.toString((window.toMillis() + bucketMillis) / 1000 + 1));
+        }
+        redisTemplate.execute(ADD_SCRIPT, keys, args.toArray());
+    }
+
+    @Override
+    public long distinct(String key, Duration window, long nowMillis) {
+        windows.indexOf(window);
+        long current = nowMillis / windows.bucketMillis(window);
+
+        String[] keys = new String[windows.getBucketsPerWindow()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = bucketKey(key, window, current - i);
+        }
+
+        Long size = redisTemplate.opsForHyperLogLog().size(keys);
+        return size == null ? 0 : size;
+    }
+
+    private static String bucketKey(String key, Duration window, long bucket) {
+        return KEY_PREFIX + key + ":" + window.toSeconds() + ":" + bucket;
+    }
+}
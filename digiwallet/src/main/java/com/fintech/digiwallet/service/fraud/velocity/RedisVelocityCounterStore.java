@@ -0,0 +1,82 @@
+package com.fintech.digiwallet.service.fraud.velocity;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Counters shared by all nodes: one Redis key per key, window and bucket, expiring
+// once the bucket has left its window. An increment touches every window in one
+// script call; a count reads the window's buckets with one MGET.
+@Component
+@ConditionalOnProperty(name = "app.fraud.velocity.store", havingValue = "redis")
+public class RedisVelocityCounterStore implements VelocityCounterStore {
+
+    private static final String KEY_PREFIX = "velocity:";
+
+    // KEYS: current bucket of each window; ARGV: matching ttl seconds
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+            "for i, key in ipairs(KEYS) do " +
+                    "redis.call('INCR', key) " +
+                    "redis.call('EXPIRE', key, ARGV[i]) " +
+                    "end " +
+                    "return #KEYS",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final VelocityWindows windows;
+
+    public RedisVelocityCounterStore(RedisTemplate<String, String> redisTemplate, VelocityWindows windows) {
+        this.redisTemplate = redisTemplate;
+        this.windows = windows;
+    }
+
+    @Override
+    public VelocityWindows windows() {
+        return windows;
+    }
+
+    @Override
+    public void increment(String key, long nowMillis) {
+        List<String> keys = new ArrayList<>();
+        List<String> ttls = new ArrayList<>();
+        for (Duration window : windows.getWindows()) {
+            long bucketMillis = windows.bucketMillis(window);
+            keys.add(bucketKey(key, window, nowMillis / bucketMillis));
+            ttls.add(Long.toString((window.toMillis() + bucketMillis) / 1000 + 1));
+        }
+        redisTemplate.execute(INCREMENT_SCRIPT, keys, ttls.toArray());
+    }
+
+    @Override
+    public long count(String key, Duration window, long nowMillis) {
+        windows.indexOf(window);
+        long current = nowMillis / windows.bucketMillis(window);
+
+        List<String> keys = new ArrayList<>(windows.getBucketsPerWindow());
+        for (int i = 0; i < windows.getBucketsPerWindow(); i++) {
+            keys.add(bucketKey(key, window, current - i));
+        }
+
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+        if (values == null) {
+            return 0;
+        }
+        long total = 0;
+        for (String value : values) {
+            if (value != null) {
+                total += Long.parseLong(value);
+            }
+        }
+        return total;
+    }
+
+    private static String bucketKey(String key, Duration window, long bucket) {
+        return KEY_PREFIX + key + ":" + window.toSeconds() + ":" + bucket;
+    }
+}
@@ -0,0 +1,43 @@
+package com.fintech.digiwallet.service.fraud.velocity;
+
+// Ring buffer of per-bucket counts with a running total. Advancing the clock
+// clears the buckets that fell out of the window, so both increment and count
+// are O(1) amortized.
+final class SlidingWindowCounter {
+
+    private final long bucketMillis;
+    private final int[] buckets;
+    private long headBucket;
+    private long total;
+
+    SlidingWindowCounter(long bucketMillis, int bucketCount, long nowMillis) {
+        this.bucketMillis = bucketMillis;
+        this.buckets = new int[bucketCount];
+        this.headBucket = nowMillis / bucketMillis;
+    }
+
+    synchronized void increment(long nowMillis) {
+        advance(nowMillis);
+        buckets[(int) (headBucket % buckets.length)]++;
+        total++;
+    }
+
+    synchronized long count(long nowMillis) {
+        advance(nowMillis);
+        return total;
+    }
+
+    private void advance(long nowMillis) {
+        long current = nowMillis / bucketMillis;
+        if (current <= headBucket) {
+            return;
+        }
+        long expired = Math.min(current - headBucket, buckets.length);
+        for (long i = 1; i <= expired; i++) {
+            int index = (int) ((headBucket + i) % buckets.length);
+            total -= buckets[index];
+            buckets[index] = 0;
+        }
+        headBucket = current;
+    }
+}
@@ -0,0 +1,56 @@
+package com.fintech.digiwallet.service.fraud.velocity;
+
+// Ring buffer of HyperLogLog sketches, one per bucket, like SlidingWindowCounter.
+// Bucket sketches are allocated on first use; the distinct count of the window is
+// estimated from the union of the live buckets.
+final class SlidingWindowSketch {
+
+    private final long bucketMillis;
+    private final int precision;
+    private final HyperLogLog[] buckets;
+    private long headBucket;
+
+    SlidingWindowSketch(long bucketMillis, int bucketCount, int precision, long nowMillis) {
+        this.bucketMillis = bucketMillis;
+        this.precision = precision;
+        this.buckets = new HyperLogLog[bucketCount];
+        this.headBucket = nowMillis / bucketMillis;
+    }
+
+    synchronized void add(long hash, long nowMillis) {
+        advance(nowMillis);
+        int index = (int) (headBucket % buckets.length);
+        if (buckets[index] == null) {
+            buckets[index] = new HyperLogLog(precision);
+        }
+        buckets[index].add(hash);
+    }
+
+    synchronized long estimate(long nowMillis) {
+        advance(nowMillis);
+        byte[] union = new byte[1 << precision];
+        boolean empty = true;
+        for (HyperLogLog bucket : buckets) {
+            if (bucket != null) {
+                bucket.mergeInto(union);
+                empty = false;
+            }
+        }
+        return empty ? 0 : HyperLogLog.estimate(union);
+    }
+
+    private void advance(long nowMillis) {
+        long current = nowMillis / bucketMillis;
+        if (current <= headBucket) {
+            return;
+        }
+        long expired = Math.min(current - headBucket, buckets.length);
+        for (long i = 1; i <= expired; i++) {
+            int index = (int) ((headBucket + i) % buckets.length);
+            if (buckets[index] != null) {
+                buckets[index].clear();
+            }
+        }
+        headBucket = current;
+    }
+}
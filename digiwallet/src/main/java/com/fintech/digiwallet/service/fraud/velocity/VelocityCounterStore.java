@@ -0,0 +1,20 @@
+package com.fintech.digiwallet.service.fraud.velocity;
+
+import java.time.Duration;
+
+// Sliding-window event counters keyed by an arbitrary subject (user, wallet).
+// Every key is counted in all configured windows at once; counts are approximate
+// to one bucket, i.e. window / buckets-per-window.
+public interface VelocityCounterStore {
+
+    VelocityWindows windows();
+
+    // True when counts are answered from this process's memory, without I/O
+    default boolean isLocal() {
+        return false;
+    }
+
+    void increment(String key, long nowMillis);
+
+    long count(String key, Duration window, long nowMillis);
+}
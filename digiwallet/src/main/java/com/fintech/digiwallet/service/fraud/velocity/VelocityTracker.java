@@ -0,0 +1,97 @@
+package com.fintech.digiwallet.service.fraud.velocity;
+
+import com.fintech.digiwallet.domain.projection.WalletMetadata;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+// Outgoing transaction counts per user and per source wallet, transfer counts per
+// user and distinct transfer recipients per source wallet, so velocity rules are
+// answered from counters and sketches instead of reading rows in transactions.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VelocityTracker {
+
+    private final VelocityCounterStore store;
+    private final CounterpartySketchStore counterparties;
+
+    // Counts the transaction once its database transaction commits; the group
+    // committer drops the hook of a transfer rolled back to its savepoint.
+    // The counterparty is the destination wallet of a transfer, null for withdrawals.
+    public void recordAfterCommit(WalletMetadata sourceWallet, UUID counterpartyWalletId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(sourceWallet, counterpartyWalletId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(sourceWallet, counterpartyWalletId);
+            }
+        });
+    }
+
+    // Both stores in memory: velocity rules can run on the calling thread
+    public boolean isLocal() {
+        return store.isLocal() && counterparties.isLocal();
+    }
+
+    public Optional<Duration> transactionWindow(Duration window) {
+        return store.windows().covering(window);
+    }
+
+    public Optional<Duration> counterpartyWindow(Duration window) {
+        return counterparties.windows().covering(window);
+    }
+
+    public long userTransactions(UUID userId, Duration window) {
+        return store.count(userKey(userId), window, System.currentTimeMillis());
+    }
+
+    public long walletTransactions(UUID walletId, Duration window) {
+        return store.count(walletKey(walletId), window, System.currentTimeMillis());
+    }
+
+    public long userTransfers(UUID userId, Duration window) {
+        return store.count(userTransfersKey(userId), window, System.currentTimeMillis());
+    }
+
+    public long walletCounterparties(UUID walletId, Duration window) {
+        return counterparties.distinct(walletKey(walletId), window, System.currentTimeMillis());
+    }
+
+    private void record(WalletMetadata sourceWallet, UUID counterpartyWalletId) {
+        long now = System.currentTimeMillis();
+        try {
+            store.increment(userKey(sourceWallet.userId()), now);
+            store.increment(walletKey(sourceWallet.id()), now);
+            if (counterpartyWalletId != null) {
+                store.increment(userTransfersKey(sourceWallet.userId()), now);
+                counterparties.add(walletKey(sourceWallet.id()), counterpartyWalletId, now);
+            }
+        } catch (RuntimeException e) {
+            // The transaction is committed; a lost increment only undercounts
+            log.warn("Failed to record velocity for wallet {}: {}",
+                    sourceWallet.walletNumber(), e.getMessage());
+        }
+    }
+
+    private static String userKey(UUID userId) {
+        return "user:" + userId;
+    }
+
+    private static String userTransfersKey(UUID userId) {
+        return "user-transfers:" + userId;
+    }
+
+    private static String walletKey(UUID walletId) {
+        return "wallet:" + walletId;
+    }
+}
@@ -0,0 +1,61 @@
+package com.fintech.digiwallet.service.fraud.velocity;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+// The windows every velocity key is counted in, e.g. 5m,1h,24h, each split into
+// the same number of ring buffer buckets
+@Component
+public class VelocityWindows {
+
+    private final List<Duration> windows;
+    private final int bucketsPerWindow;
+
+    public VelocityWindows(@Value("${app.fraud.velocity.windows:5m,1h,24h}") String windows,
+                           @Value("${app.fraud.velocity.buckets-per-window:60}") int bucketsPerWindow) {
+        this.windows = Arrays.stream(windows.split(","))
+                .map(String::trim)
+                .map(DurationStyle::detectAndParse)
+                .sorted()
+                .toList();
+        this.bucketsPerWindow = bucketsPerWindow;
+    }
+
+    public List<Duration> getWindows() {
+        return windows;
+    }
+
+    public int getBucketsPerWindow() {
+        return bucketsPerWindow;
+    }
+
+    public Duration getLongest() {
+        return windows.get(windows.size() - 1);
+    }
+
+    public long bucketMillis(Duration window) {
+        return Math.max(window.toMillis() / bucketsPerWindow, 1);
+    }
+
+    // The shortest configured window at least as long as the requested one. Counting
+    // over a longer window can only overcount, i.e. errs on the strict side.
+    public Optional<Duration> covering(Duration window) {
+        return windows.stream()
+                .filter(configured -> configured.compareTo(window) >= 0)
+                .findFirst();
+    }
+
+    public int indexOf(Duration window) {
+        int index = windows.indexOf(window);
+        if (index < 0) {
+            throw new IllegalArgumentException("Velocity window not configured: " + window);
+        }
+        return index;
+    }
+}
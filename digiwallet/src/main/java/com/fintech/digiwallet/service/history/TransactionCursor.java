@@ -0,0 +1,46 @@
+package com.fintech.digiwallet.service.history;
+
+import com.fintech.digiwallet.exception.InvalidTransactionException;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+// Position in a wallet's history: the (created_at, id) of the last row returned.
+// Clients get it as an opaque URL-safe token and hand it back unchanged.
+public record TransactionCursor(LocalDateTime createdAt, UUID id) {
+
+    private static final int TOKEN_BYTES = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    // Sorts after every real row, so the first page uses the same seek as the rest
+    public static final TransactionCursor START = new TransactionCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59), new UUID(-1L, -1L));
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(TOKEN_BYTES)
+                .putLong(createdAt.toEpochSecond(ZoneOffset.UTC))
+                .putInt(createdAt.getNano())
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static TransactionCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            if (buffer.remaining() != TOKEN_BYTES) {
+                throw new IllegalArgumentException("Unexpected cursor length");
+            }
+            LocalDateTime createdAt = LocalDateTime.ofEpochSecond(
+                    buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+            return new TransactionCursor(createdAt, new UUID(buffer.getLong(), buffer.getLong()));
+        } catch (RuntimeException e) {
+            throw new InvalidTransactionException("Invalid history cursor");
+        }
+    }
+}
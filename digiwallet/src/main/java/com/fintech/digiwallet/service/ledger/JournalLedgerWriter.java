@@ -0,0 +1,82 @@
+package com.fintech.digiwallet.service.ledger;
+
+import com.fintech.digiwallet.domain.entity.EntityIds;
+import com.fintech.digiwallet.domain.entity.LedgerEntry;
+import com.fintech.digiwallet.service.ledger.journal.JournalRecord;
+import com.fintech.digiwallet.service.ledger.journal.LedgerJournal;
+import com.fintech.digiwallet.service.ledger.journal.LedgerJournalProjector;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Appends entries to the write-ahead journal. The entries reach ledger_entries
+// asynchronously through LedgerJournalProjector.
+//
+// The surrounding database transaction only commits once the journal is forced up
+// to its entries, so a committed balance change always has durable ledger entries
+// to project or replay. The wait runs before commit rather than on every write:
+// writes of one transaction, and of a group-commit batch, share a single force.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.ledger.journal.enabled", havingValue = "true")
+public class JournalLedgerWriter implements LedgerWriter {
+
+    private final LedgerJournal journal;
+    private final LedgerJournalProjector projector;
+
+    @Override
+    public void write(List<LedgerEntry> entries) {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<JournalRecord> records = entries.stream()
+                .map(entry -> {
+                    // Ids are fixed here so that projection and replay are idempotent
+                    if (entry.getId() == null) {
+                        entry.setId(EntityIds.newId());
+                    }
+                    return JournalRecord.from(entry, now);
+                })
+                .toList();
+
+        long position = journal.append(records);
+        awaitDurableBeforeCommit(records, position);
+
+        log.debug("Journaled {} ledger entries up to position {}", records.size(), position);
+    }
+
+    // Without a transaction the write is its own commit and waits right away.
+    // A rolled back transaction lets the projector drop the entries instead of waiting
+    // for it; a transfer rolled back to its group-commit savepoint is reported the same way.
+    private void awaitDurableBeforeCommit(List<JournalRecord> records, long position) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            journal.awaitDurable(position);
+            return;
+        }
+        Set<UUID> transactionIds = records.stream()
+                .map(JournalRecord::transactionId)
+                .collect(Collectors.toSet());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                journal.awaitDurable(position);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    projector.rolledBack(transactionIds);
+                }
+            }
+        });
+    }
+}
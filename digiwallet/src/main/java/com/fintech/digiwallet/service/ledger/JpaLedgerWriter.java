@@ -0,0 +1,26 @@
+package com.fintech.digiwallet.service.ledger;
+
+import com.fintech.digiwallet.domain.entity.LedgerEntry;
+import com.fintech.digiwallet.domain.repository.LedgerEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(
+        name = "app.ledger.journal.enabled",
+        havingValue = "false",
+        matchIfMissing = true
+)
+public class JpaLedgerWriter implements LedgerWriter {
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+
+    @Override
+    public void write(List<LedgerEntry> entries) {
+        ledgerEntryRepository.saveAll(entries);
+    }
+}
@@ -0,0 +1,10 @@
+package com.fintech.digiwallet.service.ledger;
+
+import com.fintech.digiwallet.domain.entity.LedgerEntry;
+
+import java.util.List;
+
+// Where LedgerService sends new entries. Selected with app.ledger.journal.enabled.
+public interface LedgerWriter {
+    void write(List<LedgerEntry> entries);
+}
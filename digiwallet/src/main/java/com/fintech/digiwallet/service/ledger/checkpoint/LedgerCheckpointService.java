@@ -0,0 +1,277 @@
+package com.fintech.digiwallet.service.ledger.checkpoint;
+
+import com.fintech.digiwallet.exception.InvalidTransactionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Snapshots every wallet's balance and the ledger position it reached into
+// ledger_checkpoints, and answers point-in-time balances from them. A balance is the
+// latest recorded balance_after, or the checkpoint, plus the deltas after it: striped
+// wallets record no balance_after (see WalletMetadata.balanceAfter).
+//
+// A checkpoint is only written for wallets with entries since their previous one,
+// so idle wallets cost nothing. The cutoff trails the clock by a settle period:
+// journaled entries can land in ledger_entries a little after their created_at,
+// and a checkpoint must never be taken ahead of entries that are still to come.
+@Service
+@Slf4j
+public class LedgerCheckpointService {
+
+    private static final String WALLET_BATCH_SQL = """
+            SELECT id FROM wallets
+            WHERE (CAST(:after AS UUID) IS NULL OR id > CAST(:after AS UUID))
+              AND created_at <= :checkpointAt
+            ORDER BY id
+            LIMIT :batchSize
+            """;
+
+    private static final String CHECKPOINT_SQL = """
+            INSERT INTO ledger_checkpoints (wallet_id, checkpoint_at, balance, last_entry_id,
+                last_entry_at, entry_count, created_at)
+            SELECT w.id, :checkpointAt,
+                   COALESCE(anchor.balance_after, prev.balance, 0) + delta.change,
+                   COALESCE(latest.id, prev.last_entry_id),
+                   COALESCE(latest.created_at, prev.last_entry_at),
+                   COALESCE(prev.entry_count, 0) + delta.entries,
+                   CURRENT_TIMESTAMP
+            FROM wallets w
+            LEFT JOIN LATERAL (
+                SELECT c.balance, c.last_entry_id, c.last_entry_at, c.entry_count
+                FROM ledger_checkpoints c
+                WHERE c.wallet_id = w.id AND c.checkpoint_at < :checkpointAt
+                ORDER BY c.checkpoint_at DESC
+                LIMIT 1
+            ) prev ON TRUE
+            LEFT JOIN LATERAL (
+                SELECT l.id, l.created_at, l.balance_after
+                FROM ledger_entries l
+                WHERE l.wallet_id = w.id AND l.created_at <= :checkpointAt
+                  AND (prev.last_entry_at IS NULL
+                       OR (l.created_at, l.id) > (prev.last_entry_at, prev.last_entry_id))
+                ORDER BY l.created_at DESC, l.id DESC
+                LIMIT 1
+            ) latest ON TRUE
+            LEFT JOIN LATERAL (
+                SELECT l.id, l.created_at, l.balance_after
+                FROM ledger_entries l
+                WHERE l.wallet_id = w.id AND l.created_at <= :checkpointAt
+                  AND l.balance_after IS NOT NULL
+                  AND (prev.last_entry_at IS NULL
+                       OR (l.created_at, l.id) > (prev.last_entry_at, prev.last_entry_id))
+                ORDER BY l.created_at DESC, l.id DESC
+                LIMIT 1
+            ) anchor ON TRUE
+            CROSS JOIN LATERAL (
+                SELECT COUNT(*) AS entries,
+                       COALESCE(SUM(CASE WHEN anchor.id IS NULL
+                                           OR (l.created_at, l.id) > (anchor.created_at, anchor.id)
+                                    THEN CASE WHEN l.entry_type = 'CREDIT' THEN l.amount ELSE -l.amount END
+                                    ELSE 0 END), 0) AS change
+                FROM ledger_entries l
+                WHERE l.wallet_id = w.id AND l.created_at <= :checkpointAt
+                  AND (prev.last_entry_at IS NULL
+                       OR (l.created_at, l.id) > (prev.last_entry_at, prev.last_entry_id))
+            ) delta
+            WHERE w.id >= CAST(:first AS UUID) AND w.id <= CAST(:last AS UUID)
+              AND (prev.entry_count IS NULL OR delta.entries > 0)
+            ON CONFLICT (wallet_id, checkpoint_at) DO NOTHING
+            """;
+
+    private static final String LATEST_CHECKPOINT_SQL = """
+            SELECT wallet_id, checkpoint_at, balance, last_entry_id, last_entry_at, entry_count
+            FROM ledger_checkpoints
+            WHERE wallet_id = CAST(:walletId AS UUID) AND checkpoint_at <= :at
+            ORDER BY checkpoint_at DESC
+            LIMIT 1
+            """;
+
+    // Per point: one seek for the latest checkpoint, one backward seek on
+    // idx_ledger_wallet_created for the latest recorded balance_after past it, and the
+    // deltas after that. Unstriped wallets record every balance_after, so that last
+    // sum is empty; striped ones record none and add up from the checkpoint.
+    private static final String BALANCE_SERIES_SQL = """
+            SELECT p.at,
+                   COALESCE(a.balance_after, c.balance, 0) + COALESCE(
+                       (SELECT SUM(CASE WHEN l.entry_type = 'CREDIT' THEN l.amount ELSE -l.amount END)
+                        FROM ledger_entries l
+                        WHERE l.wallet_id = CAST(:walletId AS UUID) AND l.created_at <= p.at
+                          AND (a.id IS NOT NULL AND (l.created_at, l.id) > (a.created_at, a.id)
+                               OR a.id IS NULL AND (c.last_entry_at IS NULL
+                                   OR (l.created_at, l.id) > (c.last_entry_at, c.last_entry_id)))),
+                       0) AS balance
+            FROM generate_series(CAST(:from AS TIMESTAMP), CAST(:to AS TIMESTAMP),
+                                 CAST(:step AS INTERVAL)) AS p(at)
+            LEFT JOIN LATERAL (
+                SELECT balance, last_entry_id, last_entry_at
+                FROM ledger_checkpoints
+                WHERE wallet_id = CAST(:walletId AS UUID) AND checkpoint_at <= p.at
+                ORDER BY checkpoint_at DESC
+                LIMIT 1
+            ) c ON TRUE
+            LEFT JOIN LATERAL (
+                SELECT l.id, l.created_at, l.balance_after
+                FROM ledger_entries l
+                WHERE l.wallet_id = CAST(:walletId AS UUID) AND l.created_at <= p.at
+                  AND l.balance_after IS NOT NULL
+                  AND (c.last_entry_at IS NULL
+                       OR (l.created_at, l.id) > (c.last_entry_at, c.last_entry_id))
+                ORDER BY l.created_at DESC, l.id DESC
+                LIMIT 1
+            ) a ON TRUE
+            ORDER BY p.at
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.ledger.checkpoint.settle-seconds:300}")
+    private long settleSeconds;
+
+    @Value("${app.ledger.checkpoint.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.ledger.checkpoint.max-series-points:1000}")
+    private int maxSeriesPoints;
+
+    public LedgerCheckpointService(NamedParameterJdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${app.ledger.checkpoint.cron:0 15 * * * *}")
+    public void checkpointAll() {
+        LocalDateTime checkpointAt = LocalDateTime.now()
+                .minus(Duration.ofSeconds(settleSeconds))
+                .truncatedTo(ChronoUnit.SECONDS);
+        long written = checkpoint(checkpointAt);
+        log.info("Ledger checkpoint at {}: {} wallets changed", checkpointAt, written);
+    }
+
+    // Checkpoints wallets in id batches, each in its own short transaction
+    public long checkpoint(LocalDateTime checkpointAt) {
+        long written = 0;
+        UUID after = null;
+
+        while (true) {
+            List<UUID> batch = jdbcTemplate.queryForList(WALLET_BATCH_SQL,
+                    new MapSqlParameterSource()
+                            .addValue("after", after, Types.OTHER)
+                            .addValue("checkpointAt", checkpointAt)
+                            .addValue("batchSize", batchSize),
+                    UUID.class);
+            if (batch.isEmpty()) {
+                return written;
+            }
+
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("checkpointAt", checkpointAt)
+                    .addValue("first", batch.get(0))
+                    .addValue("last", batch.get(batch.size() - 1));
+            Integer inserted = transactionTemplate.execute(
+                    status -> jdbcTemplate.update(CHECKPOINT_SQL, params));
+            written += inserted != null ? inserted : 0;
+            after = batch.get(batch.size() - 1);
+        }
+    }
+
+    public Optional<LedgerCheckpoint> findLatest(UUID walletId, LocalDateTime at) {
+        return jdbcTemplate.query(LATEST_CHECKPOINT_SQL,
+                new MapSqlParameterSource()
+                        .addValue("walletId", walletId)
+                        .addValue("at", at),
+                (rs, rowNum) -> new LedgerCheckpoint(
+                        rs.getObject("wallet_id", UUID.class),
+                        rs.getObject("checkpoint_at", LocalDateTime.class),
+                        rs.getBigDecimal("balance"),
+                        rs.getObject("last_entry_id", UUID.class),
+                        rs.getObject("last_entry_at", LocalDateTime.class),
+                        rs.getLong("entry_count")))
+                .stream()
+                .findFirst();
+    }
+
+    public BigDecimal getBalanceAt(UUID walletId, LocalDateTime at) {
+        return getBalanceSeries(walletId, at, at, SeriesInterval.DAY).get(0).balance();
+    }
+
+    public List<BalancePoint> getBalanceSeries(UUID walletId, LocalDateTime from,
+                                               LocalDateTime to, SeriesInterval interval) {
+        if (from.isAfter(to)) {
+            throw new InvalidTransactionException("Series start must not be after its end");
+        }
+        long points = interval.getUnit().between(from, to) + 1;
+        if (points > maxSeriesPoints) {
+            throw new InvalidTransactionException(
+                    "Balance series is limited to " + maxSeriesPoints + " points");
+        }
+
+        return jdbcTemplate.query(BALANCE_SERIES_SQL,
+                new MapSqlParameterSource()
+                        .addValue("walletId", walletId)
+                        .addValue("from", from)
+                        .addValue("to", to)
+                        .addValue("step", interval.getPgInterval()),
+                (rs, rowNum) -> new BalancePoint(
+                        rs.getObject("at", LocalDateTime.class),
+                        rs.getBigDecimal("balance")));
+    }
+
+    public enum SeriesInterval {
+        HOUR("1 hour", ChronoUnit.HOURS),
+        DAY("1 day", ChronoUnit.DAYS),
+        WEEK("1 week", ChronoUnit.WEEKS),
+        MONTH("1 month", ChronoUnit.MONTHS);
+
+        private final String pgInterval;
+        private final ChronoUnit unit;
+
+        SeriesInterval(String pgInterval, ChronoUnit unit) {
+            this.pgInterval = pgInterval;
+            this.unit = unit;
+        }
+
+        public String getPgInterval() {
+            return pgInterval;
+        }
+
+        public ChronoUnit getUnit() {
+            return unit;
+        }
+
+        public static SeriesInterval from(String value) {
+            for (SeriesInterval interval : values()) {
+                if (interval.name().equalsIgnoreCase(value)) {
+                    return interval;
+                }
+            }
+            throw new InvalidTransactionException("Unsupported series interval: " + value);
+        }
+    }
+
+    public record LedgerCheckpoint(
+            UUID walletId,
+            LocalDateTime checkpointAt,
+            BigDecimal balance,
+            UUID lastEntryId,
+            LocalDateTime lastEntryAt,
+            long entryCount
+    ) {}
+
+    public record BalancePoint(LocalDateTime at, BigDecimal balance) {}
+}
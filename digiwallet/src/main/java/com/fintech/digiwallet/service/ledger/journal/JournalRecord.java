@@ -0,0 +1,97 @@
+package com.fintech.digiwallet.service.ledger.journal;
+
+import com.fintech.digiwallet.domain.entity.LedgerEntry;
+import com.fintech.digiwallet.domain.enums.AccountType;
+import com.fintech.digiwallet.domain.enums.Currency;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One ledger entry as stored in the journal
+public record JournalRecord(
+        UUID entryId,
+        UUID transactionId,
+        UUID walletId,
+        AccountType entryType,
+        BigDecimal amount,
+        Currency currency,
+        BigDecimal balanceAfter,
+        String reference,
+        String description,
+        LocalDateTime createdAt
+) {
+
+    public static JournalRecord from(LedgerEntry entry, LocalDateTime createdAt) {
+        return new JournalRecord(
+                entry.getId(),
+                entry.getTransaction().getId(),
+                entry.getWallet().getId(),
+                entry.getEntryType(),
+                entry.getAmount(),
+                entry.getCurrency(),
+                entry.getBalanceAfter(),
+                entry.getReference(),
+                entry.getDescription(),
+                createdAt);
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeUuid(out, entryId);
+            writeUuid(out, transactionId);
+            writeUuid(out, walletId);
+            out.writeUTF(entryType.name());
+            out.writeUTF(amount.toPlainString());
+            out.writeUTF(currency.name());
+            // Empty for striped wallets, which record no running balance
+            out.writeUTF(balanceAfter != null ? balanceAfter.toPlainString() : "");
+            out.writeUTF(reference);
+            out.writeBoolean(description != null);
+            if (description != null) {
+                out.writeUTF(description);
+            }
+            out.writeUTF(createdAt.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static JournalRecord decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            UUID entryId = readUuid(in);
+            UUID transactionId = readUuid(in);
+            UUID walletId = readUuid(in);
+            AccountType entryType = AccountType.valueOf(in.readUTF());
+            BigDecimal amount = new BigDecimal(in.readUTF());
+            Currency currency = Currency.valueOf(in.readUTF());
+            String balance = in.readUTF();
+            BigDecimal balanceAfter = balance.isEmpty() ? null : new BigDecimal(balance);
+            String reference = in.readUTF();
+            String description = in.readBoolean() ? in.readUTF() : null;
+            LocalDateTime createdAt = LocalDateTime.parse(in.readUTF());
+
+            return new JournalRecord(entryId, transactionId, walletId, entryType, amount,
+                    currency, balanceAfter, reference, description, createdAt);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+}
@@ -0,0 +1,342 @@
+package com.fintech.digiwallet.service.ledger.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import sun.misc.Unsafe;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only, memory-mapped write-ahead journal for ledger entries.
+//
+// The journal is a sequence of fixed-size segment files named after the global
+// position of their first byte. Each record is [length][crc32][payload]; a zero
+// length marks the unused tail of a segment. Appends are serialised by a short
+// lock, while fsync is batched: whoever forces the mapping makes every record
+// written before it durable, so concurrent writers share one force. Writers wait
+// for it before their transaction commits; the mapping is also forced on a short
+// interval, since only durable records are handed to the projector.
+//
+// Segments the projector has checkpointed past are unmapped and deleted, so disk
+// use and mapped memory stay bounded by the projection lag.
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.ledger.journal.enabled", havingValue = "true")
+public class LedgerJournal {
+
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "projection.checkpoint";
+
+    @Value("${app.ledger.journal.directory:./data/ledger-journal}")
+    private String directoryName;
+
+    @Value("${app.ledger.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    private Path directory;
+    private int segmentSize;
+
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Object forceLock = new Object();
+
+    private volatile Segment active;
+    private volatile long writePosition;
+    private volatile long durablePosition;
+
+    @PostConstruct
+    void open() throws IOException {
+        directory = Paths.get(directoryName);
+        segmentSize = segmentSizeMb * 1024 * 1024;
+        Files.createDirectories(directory);
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            segments.put(base, Segment.open(file, base, segmentSize));
+        }
+
+        if (segments.isEmpty()) {
+            active = createSegment(0);
+            writePosition = 0;
+        } else {
+            active = segments.lastEntry().getValue();
+            writePosition = recoverTail(active);
+        }
+        durablePosition = writePosition;
+
+        log.info("Ledger journal opened at {}: {} segment(s), position {}",
+                directory.toAbsolutePath(), segments.size(), writePosition);
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+    }
+
+    // Appends the records contiguously and returns the position just past the last one
+    public long append(List<JournalRecord> records) {
+        List<byte[]> payloads = records.stream().map(JournalRecord::encode).toList();
+
+        appendLock.lock();
+        try {
+            Segment segment = active;
+            int offset = (int) (writePosition - segment.base);
+
+            for (byte[] payload : payloads) {
+                int size = HEADER_BYTES + payload.length;
+                if (size > segmentSize) {
+                    throw new IllegalArgumentException("Journal record larger than a segment");
+                }
+                if (offset + size > segmentSize) {
+                    segment = roll(segment);
+                    offset = 0;
+                }
+
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+
+                // Payload first, length last: a reader never sees a length
+                // whose bytes are not all there
+                segment.buffer.putInt(offset + 4, (int) crc.getValue());
+                segment.buffer.put(offset + HEADER_BYTES, payload);
+                segment.buffer.putInt(offset, payload.length);
+                offset += size;
+            }
+
+            writePosition = segment.base + offset;
+            return writePosition;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Forces what has been appended so far. Records are written through a shared
+    // mapping, so a process crash keeps them; this bounds what a host crash can lose.
+    @Scheduled(fixedDelayString = "${app.ledger.journal.force-interval-ms:10}")
+    public void forceAppended() {
+        awaitDurable(writePosition);
+    }
+
+    // Blocks until everything up to position has been forced to disk
+    public void awaitDurable(long position) {
+        if (durablePosition >= position) {
+            return;
+        }
+        synchronized (forceLock) {
+            if (durablePosition >= position) {
+                return;
+            }
+            // Read the target before the segment: a segment rolled in between has
+            // already been forced by roll()
+            long target = writePosition;
+            active.buffer.force();
+            durablePosition = Math.max(durablePosition, target);
+        }
+    }
+
+    // Reads up to maxRecords durable records starting at position
+    public List<PositionedRecord> read(long position, int maxRecords) {
+        List<PositionedRecord> records = new ArrayList<>();
+        long limit = durablePosition;
+
+        while (position < limit && records.size() < maxRecords) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(position);
+            if (entry == null) {
+                // Released already; continue with the oldest retained segment
+                Long oldest = segments.ceilingKey(position);
+                if (oldest == null) {
+                    break;
+                }
+                position = oldest;
+                continue;
+            }
+            Segment segment = entry.getValue();
+            int offset = (int) (position - segment.base);
+
+            int length = offset + HEADER_BYTES <= segmentSize ? segment.buffer.getInt(offset) : 0;
+            if (length <= 0) {
+                // Unused tail of a segment, continue with the next one
+                position = segment.base + segmentSize;
+                continue;
+            }
+
+            byte[] payload = new byte[length];
+            segment.buffer.get(offset + HEADER_BYTES, payload);
+            if (!checksumMatches(segment.buffer.getInt(offset + 4), payload)) {
+                throw new IllegalStateException("Corrupt ledger journal record at " + position);
+            }
+
+            long next = position + HEADER_BYTES + length;
+            records.add(new PositionedRecord(position, next, JournalRecord.decode(payload)));
+            position = next;
+        }
+        return records;
+    }
+
+    // Unmaps and deletes every segment that ends at or before position, except the
+    // active one, and returns how many were released. The projector calls this with
+    // its checkpoint, which never passes a pending record, and it is also the only
+    // reader, so no read can touch a segment while it is unmapped.
+    public synchronized int releaseBefore(long position) {
+        int released = 0;
+        for (Segment segment : segments.headMap(position).values()) {
+            if (segment == active || segment.base + segmentSize > position) {
+                continue;
+            }
+            segments.remove(segment.base);
+            try {
+                segment.channel.close();
+                unmap(segment.buffer);
+                Files.deleteIfExists(segmentFile(segment.base));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            released++;
+            log.info("Ledger journal released segment {}", segment.base);
+        }
+        return released;
+    }
+
+    public long getWritePosition() {
+        return writePosition;
+    }
+
+    public long getDurablePosition() {
+        return durablePosition;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long readCheckpoint() {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        try {
+            return Files.exists(file) ? Long.parseLong(Files.readString(file).trim()) : 0L;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void writeCheckpoint(long position) {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try {
+            Files.writeString(temp, Long.toString(position));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Segment roll(Segment current) {
+        current.buffer.force();
+        Segment next = createSegment(current.base + segmentSize);
+        active = next;
+        log.info("Ledger journal rolled to segment {}", next.base);
+        return next;
+    }
+
+    private Segment createSegment(long base) {
+        try {
+            Segment segment = Segment.open(segmentFile(base), base, segmentSize);
+            segments.put(base, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path segmentFile(long base) {
+        return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    // Java has no public unmap; if this fails the mapping lasts until the buffer is
+    // collected, which only delays freeing it
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            ((Unsafe) field.get(null)).invokeCleaner(buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Could not unmap a ledger journal segment: {}", e.getMessage());
+        }
+    }
+
+    // Finds the end of the last valid record after a crash and wipes any torn
+    // record behind it, so new appends start from a clean boundary.
+    private long recoverTail(Segment segment) {
+        int offset = 0;
+        while (offset + HEADER_BYTES <= segmentSize) {
+            int length = segment.buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > segmentSize) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            segment.buffer.get(offset + HEADER_BYTES, payload);
+            if (!checksumMatches(segment.buffer.getInt(offset + 4), payload)) {
+                log.warn("Torn ledger journal record at {}, truncating", segment.base + offset);
+                break;
+            }
+            offset += HEADER_BYTES + length;
+        }
+
+        for (int i = offset; i < segmentSize; i++) {
+            segment.buffer.put(i, (byte) 0);
+        }
+        segment.buffer.force();
+        return segment.base + offset;
+    }
+
+    private static boolean checksumMatches(int expected, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == expected;
+    }
+
+    public record PositionedRecord(long position, long nextPosition, JournalRecord record) {}
+
+    private record Segment(long base, FileChannel channel, MappedByteBuffer buffer) {
+
+        static Segment open(Path file, long base, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new Segment(base, channel, buffer);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.fintech.digiwallet.service.ledger.journal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// /actuator/ledgerjournal: GET shows journal and projection positions,
+// POST replays the retained journal into ledger_entries after a crash
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "ledgerjournal")
+@ConditionalOnProperty(name = "app.ledger.journal.enabled", havingValue = "true")
+public class LedgerJournalEndpoint {
+
+    private final LedgerJournalProjector projector;
+
+    @ReadOperation
+    public LedgerJournalProjector.ProjectionStatus status() {
+        return projector.status();
+    }
+
+    @WriteOperation
+    public LedgerJournalProjector.ReplayResult replay() {
+        return projector.replay();
+    }
+}
@@ -0,0 +1,268 @@
+package com.fintech.digiwallet.service.ledger.journal;
+
+import com.fintech.digiwallet.service.ledger.journal.LedgerJournal.PositionedRecord;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Bulk-loads journaled entries into ledger_entries.
+//
+// Entries are journaled before their database transaction commits, so an entry
+// whose transaction row is not visible yet is kept pending and retried until it is.
+// An entry is only dropped once its transaction is known not to have committed:
+// the writer reports rollbacks, and entries journaled by an earlier process belong
+// to transactions that have all ended. Entries still waiting after the commit grace
+// period are logged once. Inserts ignore ids that already exist, which makes both
+// normal projection after a restart and a full replay idempotent.
+//
+// Segments wholly before the checkpoint hold nothing pending, and entries of rolled
+// back transactions are never needed again, so they are released as the checkpoint
+// moves past them. Replay covers the retained segments.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.ledger.journal.enabled", havingValue = "true")
+public class LedgerJournalProjector {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO ledger_entries (id, transaction_id, wallet_id, entry_type, amount, " +
+                    "currency, balance_after, reference, description, created_at, updated_at, version) " +
+                    "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0 " +
+                    "WHERE EXISTS (SELECT 1 FROM transactions WHERE id = ?) " +
+                    "ON CONFLICT (id, created_at) DO NOTHING";
+
+    private static final String EXISTING_IDS_SQL =
+            "SELECT id FROM ledger_entries WHERE id IN (:ids)";
+
+    private final LedgerJournal journal;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Value("${app.ledger.journal.projection-batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.ledger.journal.commit-grace-seconds:60}")
+    private long commitGraceSeconds;
+
+    // Rollback reports are kept long enough for a lagging projector to meet them
+    private static final Duration ROLLBACK_RETENTION = Duration.ofHours(1);
+
+    private final List<PendingRecord> pending = new ArrayList<>();
+    private final Map<UUID, Instant> rolledBack = new ConcurrentHashMap<>();
+    private long readPosition;
+    private long checkpoint;
+    private long startupPosition;
+
+    @PostConstruct
+    void init() {
+        checkpoint = journal.readCheckpoint();
+        readPosition = checkpoint;
+        journal.releaseBefore(checkpoint);
+        // Everything before this was written by an earlier process
+        startupPosition = journal.getWritePosition();
+    }
+
+    public void rolledBack(Collection<UUID> transactionIds) {
+        Instant now = Instant.now();
+        transactionIds.forEach(id -> rolledBack.put(id, now));
+    }
+
+    @Scheduled(fixedDelayString = "${app.ledger.journal.projection-interval-ms:200}")
+    public synchronized void project() {
+        retryPending();
+
+        List<PositionedRecord> batch = journal.read(readPosition, batchSize);
+        if (!batch.isEmpty()) {
+            for (PositionedRecord record : insert(batch)) {
+                pending.add(new PendingRecord(record, Instant.now(), false));
+            }
+            readPosition = batch.get(batch.size() - 1).nextPosition();
+        }
+
+        long next = pending.stream()
+                .mapToLong(p -> p.record().position())
+                .min()
+                .orElse(readPosition);
+        if (next != checkpoint) {
+            journal.writeCheckpoint(next);
+            checkpoint = next;
+            journal.releaseBefore(checkpoint);
+        }
+    }
+
+    // Re-projects the retained journal, filling any gap left in ledger_entries
+    public synchronized ReplayResult replay() {
+        long position = 0;
+        long read = 0;
+        long skipped = 0;
+
+        while (true) {
+            List<PositionedRecord> batch = journal.read(position, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            read += batch.size();
+            skipped += insert(batch).size();
+            position = batch.get(batch.size() - 1).nextPosition();
+        }
+
+        log.info("Ledger journal replay finished: {} records read, {} without a transaction",
+                read, skipped);
+        return new ReplayResult(read, skipped);
+    }
+
+    // Projects until everything journaled before the call has been read, i.e. inserted
+    // or pending; false if that takes longer than timeout
+    public boolean catchUp(Duration timeout) {
+        long target = journal.getWritePosition();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        journal.forceAppended();
+        while (true) {
+            project();
+            synchronized (this) {
+                if (readPosition >= target) {
+                    return true;
+                }
+            }
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    // Wallets with entries whose transaction is not visible yet
+    public synchronized Set<UUID> pendingWallets() {
+        Set<UUID> wallets = new HashSet<>();
+        pending.forEach(p -> wallets.add(p.record().record().walletId()));
+        return wallets;
+    }
+
+    public synchronized ProjectionStatus status() {
+        return new ProjectionStatus(
+                journal.getWritePosition(),
+                journal.getDurablePosition(),
+                checkpoint,
+                pending.size(),
+                journal.getSegmentCount());
+    }
+
+    private void retryPending() {
+        Instant now = Instant.now();
+        rolledBack.values().removeIf(reportedAt -> reportedAt.isBefore(now.minus(ROLLBACK_RETENTION)));
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Set<PositionedRecord> stillMissing = new HashSet<>(
+                insert(pending.stream().map(PendingRecord::record).toList()));
+        Instant cutoff = now.minus(Duration.ofSeconds(commitGraceSeconds));
+
+        ListIterator<PendingRecord> iterator = pending.listIterator();
+        while (iterator.hasNext()) {
+            PendingRecord item = iterator.next();
+            JournalRecord record = item.record().record();
+            if (!stillMissing.contains(item.record())) {
+                iterator.remove();
+            } else if (rolledBack.containsKey(record.transactionId())) {
+                log.debug("Dropping journaled ledger entry {} of rolled back transaction {}",
+                        record.entryId(), record.transactionId());
+                iterator.remove();
+            } else if (item.record().position() < startupPosition) {
+                log.warn("Dropping journaled ledger entry {}: transaction {} did not commit before restart",
+                        record.entryId(), record.transactionId());
+                iterator.remove();
+            } else if (!item.reported() && item.firstSeen().isBefore(cutoff)) {
+                log.warn("Journaled ledger entry {} still waiting for transaction {} after {}s",
+                        record.entryId(), record.transactionId(), commitGraceSeconds);
+                iterator.set(new PendingRecord(item.record(), item.firstSeen(), true));
+            }
+        }
+    }
+
+    // Inserts the records and returns those whose transaction is not visible
+    private List<PositionedRecord> insert(List<PositionedRecord> records) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, records, records.size(), (ps, item) -> {
+            JournalRecord record = item.record();
+            ps.setObject(1, record.entryId());
+            ps.setObject(2, record.transactionId());
+            ps.setObject(3, record.walletId());
+            ps.setString(4, record.entryType().name());
+            ps.setBigDecimal(5, record.amount());
+            ps.setString(6, record.currency().name());
+            ps.setBigDecimal(7, record.balanceAfter());
+            ps.setString(8, record.reference());
+            if (record.description() != null) {
+                ps.setString(9, record.description());
+            } else {
+                ps.setNull(9, Types.VARCHAR);
+            }
+            ps.setObject(10, record.createdAt());
+            ps.setObject(11, record.createdAt());
+            ps.setObject(12, record.transactionId());
+        });
+
+        // A zero count is either an entry projected before or a missing transaction;
+        // SUCCESS_NO_INFO says nothing about which rows were inserted, so both are checked
+        List<PositionedRecord> unconfirmed = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0 || count == Statement.SUCCESS_NO_INFO) {
+                    unconfirmed.add(records.get(index));
+                }
+                index++;
+            }
+        }
+        if (unconfirmed.isEmpty()) {
+            return unconfirmed;
+        }
+
+        Set<UUID> existing = new HashSet<>(namedJdbcTemplate.queryForList(EXISTING_IDS_SQL,
+                new MapSqlParameterSource("ids",
+                        unconfirmed.stream().map(r -> r.record().entryId()).toList()),
+                UUID.class));
+
+        return unconfirmed.stream()
+                .filter(r -> !existing.contains(r.record().entryId()))
+                .toList();
+    }
+
+    private record PendingRecord(PositionedRecord record, Instant firstSeen, boolean reported) {}
+
+    public record ReplayResult(long recordsRead, long recordsWithoutTransaction) {}
+
+    public record ProjectionStatus(
+            long writePosition,
+            long durablePosition,
+            long projectedPosition,
+            int pendingEntries,
+            int segments
+    ) {}
+}
@@ -0,0 +1,30 @@
+package com.fintech.digiwallet.service.partition;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// /actuator/partitions: GET lists the monthly partitions (and detached ones still
+// waiting to be archived), POST archives the months past the retention period when
+// app.partitioning.archive.enabled is set
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "partitions")
+public class PartitionEndpoint {
+
+    private final PartitionMaintenanceService partitionMaintenanceService;
+
+    @ReadOperation
+    public List<PartitionMaintenanceService.PartitionInfo> partitions() {
+        return partitionMaintenanceService.listPartitions();
+    }
+
+    @WriteOperation
+    public List<PartitionMaintenanceService.ArchivedPartition> archive() {
+        return partitionMaintenanceService.archiveExpired();
+    }
+}
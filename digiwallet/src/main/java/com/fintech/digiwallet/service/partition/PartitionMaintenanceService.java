@@ -0,0 +1,308 @@
+package com.fintech.digiwallet.service.partition;
+
+import com.fintech.digiwallet.service.ledger.checkpoint.LedgerCheckpointService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSetMetaData;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+// Keeps the monthly partitions of transactions and ledger_entries (V16) in shape:
+// future months are created ahead of time so rows never land in the default
+// partition, and, when enabled, months past the retention period are detached,
+// exported to gzip CSV and dropped.
+//
+// Archiving a month first writes a ledger checkpoint at its end, so point-in-time
+// balances and reconciliation can start from there instead of the dropped entries.
+// A partition that is detached but not yet dropped is picked up again by the next
+// run, which makes an interrupted archive resumable.
+//
+// Settled split_payments rows that belong to an archived month's transactions are
+// exported and deleted with it. wallet_activity keeps its rows, so wallet history
+// still covers archived months. Idempotency keys stay in transaction_keys, so a
+// replayed request for an archived transaction is still rejected, and V19 keeps the
+// remaining rows pointing at existing keys.
+@Service
+@Slf4j
+public class PartitionMaintenanceService {
+
+    private static final List<String> PARTITIONED_TABLES = List.of("ledger_entries", "transactions");
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("^(\\w+)_p(\\d{4})_(\\d{2})$");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String CREATE_PARTITIONS_SQL =
+            "SELECT create_monthly_partitions(?, CAST(? AS DATE), ?)";
+
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname, c.relispartition, c.reltuples::BIGINT AS estimated_rows
+            FROM pg_class c
+            WHERE c.relkind = 'r'
+              AND c.relnamespace = current_schema()::regnamespace
+              AND c.relname ~ ('^' || ? || '_p[0-9]{4}_[0-9]{2}$')
+            ORDER BY c.relname
+            """;
+
+    private static final String RECORD_ARCHIVE_SQL = """
+            INSERT INTO partition_archives (partition_name, parent_table, range_start, range_end,
+                row_count, file_path)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (partition_name) DO UPDATE
+            SET row_count = EXCLUDED.row_count, file_path = EXCLUDED.file_path,
+                archived_at = CURRENT_TIMESTAMP
+            """;
+
+    // Rows of other tables that belong to the transactions of a partition; %s is the
+    // partition. Pending splits are still owed and stay.
+    private static final List<ChildTable> CHILD_TABLES = List.of(
+            new ChildTable("split_payments",
+                    "transaction_id IN (SELECT id FROM %s) AND status <> 'PENDING'"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate exportJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerCheckpointService ledgerCheckpointService;
+
+    @Value("${app.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${app.partitioning.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    @Value("${app.partitioning.archive.retention-months:24}")
+    private int retentionMonths;
+
+    @Value("${app.partitioning.archive.directory:./data/archive}")
+    private String archiveDirectory;
+
+    public PartitionMaintenanceService(DataSource dataSource,
+                                       JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       LedgerCheckpointService ledgerCheckpointService,
+                                       @Value("${app.partitioning.archive.fetch-size:5000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exportJdbcTemplate = new JdbcTemplate(dataSource);
+        this.exportJdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ledgerCheckpointService = ledgerCheckpointService;
+    }
+
+    // Runs at startup and then periodically; creating a month that exists is a no-op
+    @Scheduled(fixedDelayString = "${app.partitioning.maintenance-interval-ms:21600000}")
+    public void createFuturePartitions() {
+        LocalDateTime thisMonth = YearMonth.now().atDay(1).atStartOfDay();
+        for (String table : PARTITIONED_TABLES) {
+            Integer created = jdbcTemplate.queryForObject(CREATE_PARTITIONS_SQL, Integer.class,
+                    table, thisMonth.toLocalDate(), monthsAhead + 1);
+            if (created != null && created > 0) {
+                log.info("Created {} monthly partitions of {}", created, table);
+            }
+        }
+    }
+
+    @Scheduled(cron = "${app.partitioning.archive.cron:0 0 3 2 * *}")
+    public void scheduledArchive() {
+        archiveExpired();
+    }
+
+    // Archives every month older than the retention period, oldest first
+    public synchronized List<ArchivedPartition> archiveExpired() {
+        if (!archiveEnabled) {
+            log.info("Partition archiving is disabled");
+            return List.of();
+        }
+
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        List<ArchivedPartition> archived = new ArrayList<>();
+
+        for (YearMonth month : expiredMonths(cutoff)) {
+            LocalDateTime rangeStart = month.atDay(1).atStartOfDay();
+            LocalDateTime rangeEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+
+            // At the month's last microsecond: exactly the entries being archived
+            ledgerCheckpointService.checkpoint(rangeEnd.minusNanos(1_000));
+
+            for (String table : PARTITIONED_TABLES) {
+                String partition = table + "_p" + month.format(SUFFIX);
+                PartitionInfo info = findPartition(table, partition);
+                if (info == null) {
+                    continue;
+                }
+                if (info.attached()) {
+                    jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+                    log.info("Detached partition {}", partition);
+                }
+
+                if (table.equals("transactions")) {
+                    for (ChildTable child : CHILD_TABLES) {
+                        archiveChildRows(child, partition, month, rangeStart, rangeEnd)
+                                .ifPresent(archived::add);
+                    }
+                }
+
+                Path file = archiveFile(table, partition);
+                long rows = export("SELECT * FROM " + partition, file, null);
+                jdbcTemplate.update(RECORD_ARCHIVE_SQL, partition, table, rangeStart, rangeEnd,
+                        rows, file.toString());
+                jdbcTemplate.execute("DROP TABLE " + partition);
+
+                log.info("Archived partition {} ({} rows) to {}", partition, rows, file);
+                archived.add(new ArchivedPartition(partition, rows, file.toString()));
+            }
+        }
+        return archived;
+    }
+
+    public List<PartitionInfo> listPartitions() {
+        List<PartitionInfo> partitions = new ArrayList<>();
+        for (String table : PARTITIONED_TABLES) {
+            partitions.addAll(jdbcTemplate.query(PARTITIONS_SQL, (rs, rowNum) -> new PartitionInfo(
+                    table,
+                    rs.getString("relname"),
+                    rs.getBoolean("relispartition"),
+                    Math.max(rs.getLong("estimated_rows"), 0)), table));
+        }
+        return partitions;
+    }
+
+    private List<YearMonth> expiredMonths(YearMonth cutoff) {
+        return listPartitions().stream()
+                .map(info -> PARTITION_NAME.matcher(info.name()))
+                .filter(Matcher::matches)
+                .map(m -> YearMonth.of(Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3))))
+                .filter(month -> month.isBefore(cutoff))
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    // Exports and deletes the child rows in one transaction. A rerun after the delete
+    // committed finds nothing and keeps the earlier file.
+    private Optional<ArchivedPartition> archiveChildRows(ChildTable child, String partition,
+                                                         YearMonth month, LocalDateTime rangeStart,
+                                                         LocalDateTime rangeEnd) {
+        String where = child.where().formatted(partition);
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + child.name() + " WHERE " + where, Long.class);
+        if (count == null || count == 0) {
+            return Optional.empty();
+        }
+
+        String name = child.name() + "_p" + month.format(SUFFIX);
+        Path file = archiveFile(child.name(), name);
+        long rows = export("SELECT * FROM " + child.name() + " WHERE " + where + " FOR UPDATE",
+                file, "DELETE FROM " + child.name() + " WHERE " + where);
+        jdbcTemplate.update(RECORD_ARCHIVE_SQL, name, child.name(), rangeStart, rangeEnd,
+                rows, file.toString());
+
+        log.info("Archived {} rows of {} for partition {} to {}", rows, child.name(), partition, file);
+        return Optional.of(new ArchivedPartition(name, rows, file.toString()));
+    }
+
+    private PartitionInfo findPartition(String table, String partition) {
+        return listPartitions().stream()
+                .filter(info -> info.table().equals(table) && info.name().equals(partition))
+                .findFirst()
+                .orElse(null);
+    }
+
+    // Writes the query result as gzip CSV with a header row. The file is synced and
+    // moved into place before the rows may be deleted; deleteSql, when given, runs in
+    // the same transaction as the query.
+    private long export(String query, Path file, String deleteSql) {
+        return transactionTemplate.execute(status -> {
+            long rows = writeCsv(query, file);
+            if (deleteSql != null) {
+                jdbcTemplate.update(deleteSql);
+            }
+            return rows;
+        });
+    }
+
+    private long writeCsv(String query, Path file) {
+        Path temp = file.resolveSibling(file.getFileName() + ".part");
+        AtomicLong rows = new AtomicLong();
+
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileOutputStream out = new FileOutputStream(temp.toFile());
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(
+                         new GZIPOutputStream(out, 64 * 1024), StandardCharsets.UTF_8))) {
+                // Called inside a transaction so the driver honours the fetch size
+                exportJdbcTemplate.query(query, (RowCallbackHandler) rs -> {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    try {
+                        if (rows.getAndIncrement() == 0) {
+                            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                                writer.write(i > 1 ? "," : "");
+                                writer.write(meta.getColumnName(i));
+                            }
+                            writer.write('\n');
+                        }
+                        for (int i = 1; i <= meta.getColumnCount(); i++) {
+                            writer.write(i > 1 ? "," : "");
+                            writer.write(csv(rs.getString(i)));
+                        }
+                        writer.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.flush();
+                out.getFD().sync();
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return rows.get();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path archiveFile(String table, String partition) {
+        return Paths.get(archiveDirectory, table).resolve(partition + ".csv.gz");
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.isEmpty() || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
+    private record ChildTable(String name, String where) {}
+
+    public record PartitionInfo(String table, String name, boolean attached, long estimatedRows) {}
+
+    public record ArchivedPartition(String partition, long rows, String file) {}
+}
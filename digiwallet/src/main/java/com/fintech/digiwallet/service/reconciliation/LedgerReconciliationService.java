@@ -0,0 +1,543 @@
+package com.fintech.digiwallet.service.reconciliation;
+
+import com.fintech.digiwallet.domain.entity.EntityIds;
+import com.fintech.digiwallet.service.ledger.journal.LedgerJournalProjector;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// Verifies that every wallet's balance (wallets row plus stripes) equals the sum of
+// its ledger deltas, and that each balance_after equals the previous one plus the
+// entry's delta. Striped wallets record no balance_after, so only their totals are
+// checked; a NULL on either side of a link leaves that link out of the chain check.
+//
+// Wallets are split into id ranges that a fork/join pool reconciles in parallel.
+// Each range is a single aggregate query in its own repeatable-read transaction, so
+// balances and ledger are read from one snapshot and nothing is loaded as entities.
+//
+// An incremental run starts each wallet from its latest ledger checkpoint taken
+// before the previous completed run began: that run verified the chain up to there,
+// so only newer entries are read. Wallets that drifted in that run, and every wallet
+// in a full run, start from zero or, once ledger months have been archived, from the
+// checkpoint written when the last archived month was dropped.
+//
+// The pool is capped below the connection pool size, leaving connections for
+// requests and other jobs. With the ledger journal enabled, a wallet's balance can
+// move before its entries are projected, so drifted wallets are checked again after
+// the projector catches up; wallets whose entries still wait for their transaction
+// are left out of the report.
+@Service
+@Slf4j
+public class LedgerReconciliationService {
+
+    private static final String PARTITION_BOUNDS_SQL = """
+            SELECT id FROM (
+                SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS rn FROM wallets
+            ) numbered
+            WHERE (rn - 1) % :partitionSize = 0
+            ORDER BY id
+            """;
+
+    private static final String RANGE_FILTER =
+            "w.id >= CAST(:lower AS UUID) AND (CAST(:upper AS UUID) IS NULL OR w.id < CAST(:upper AS UUID))";
+
+    private static final String WALLETS_FILTER = "w.id IN (:walletIds)";
+
+    // {walletFilter} selects the wallets: an id range, or the drifted wallets to confirm
+    private static final String RECONCILE_SQL = """
+            WITH base AS (
+                SELECT w.id AS wallet_id, w.wallet_number,
+                       w.balance + COALESCE((SELECT SUM(s.balance) FROM wallet_balance_stripes s
+                                             WHERE s.wallet_id = w.id), 0) AS wallet_balance,
+                       cp.balance AS base_balance, cp.last_entry_at, cp.last_entry_id
+                FROM wallets w
+                LEFT JOIN LATERAL (
+                    SELECT c.balance, c.last_entry_at, c.last_entry_id
+                    FROM ledger_checkpoints c
+                    WHERE c.wallet_id = w.id
+                      AND c.checkpoint_at <= CASE
+                          WHEN EXISTS (SELECT 1 FROM reconciliation_drifts d
+                                       WHERE d.run_id = CAST(:previousRunId AS UUID)
+                                         AND d.wallet_id = w.id)
+                          THEN CAST(:archivedUntil AS TIMESTAMP)
+                          ELSE CAST(:verifiedUntil AS TIMESTAMP) END
+                    ORDER BY c.checkpoint_at DESC
+                    LIMIT 1
+                ) cp ON TRUE
+                WHERE {walletFilter}
+            ),
+            entries AS (
+                SELECT b.wallet_id, e.transaction_id, e.created_at, e.id, e.delta,
+                       e.balance_after <> CASE WHEN e.previous_id IS NULL
+                           THEN COALESCE(b.base_balance, 0) ELSE e.previous_balance END
+                           + e.delta AS broken
+                FROM base b
+                CROSS JOIN LATERAL (
+                    SELECT l.transaction_id, l.created_at, l.id, l.balance_after,
+                           CASE WHEN l.entry_type = 'CREDIT' THEN l.amount ELSE -l.amount END AS delta,
+                           LAG(l.id) OVER (ORDER BY l.created_at, l.id) AS previous_id,
+                           LAG(l.balance_after) OVER (ORDER BY l.created_at, l.id) AS previous_balance
+                    FROM ledger_entries l
+                    WHERE l.wallet_id = b.wallet_id
+                      AND (b.last_entry_at IS NULL
+                           OR (l.created_at, l.id) > (b.last_entry_at, b.last_entry_id))
+                ) e
+            )
+            SELECT b.wallet_id, b.wallet_number, b.wallet_balance,
+                   COALESCE(b.base_balance, 0) + COALESCE(SUM(e.delta), 0) AS ledger_balance,
+                   COUNT(e.wallet_id) AS entries,
+                   COUNT(*) FILTER (WHERE e.broken) AS chain_breaks,
+                   (ARRAY_AGG(e.transaction_id ORDER BY e.created_at, e.id)
+                       FILTER (WHERE e.broken))[1:10] AS broken_transactions
+            FROM base b
+            LEFT JOIN entries e ON e.wallet_id = b.wallet_id
+            GROUP BY b.wallet_id, b.wallet_number, b.wallet_balance, b.base_balance
+            """;
+
+    private static final String LAST_COMPLETED_RUN_SQL = """
+            SELECT id, started_at FROM reconciliation_runs
+            WHERE status = 'COMPLETED'
+            ORDER BY started_at DESC
+            LIMIT 1
+            """;
+
+    private static final String ARCHIVED_UNTIL_SQL =
+            "SELECT MAX(range_end) FROM partition_archives WHERE parent_table = 'ledger_entries'";
+
+    private static final String INSERT_RUN_SQL = """
+            INSERT INTO reconciliation_runs (id, mode, status, previous_run_id, started_at)
+            VALUES (:id, :mode, 'RUNNING', :previousRunId, :startedAt)
+            """;
+
+    private static final String FINISH_RUN_SQL = """
+            UPDATE reconciliation_runs
+            SET status = :status, finished_at = :finishedAt, wallets_checked = :wallets,
+                entries_scanned = :entries, drifted_wallets = :drifted
+            WHERE id = :id
+            """;
+
+    private static final String INSERT_DRIFT_SQL =
+            "INSERT INTO reconciliation_drifts (run_id, wallet_id, wallet_number, wallet_balance, " +
+                    "ledger_balance, chain_breaks, transaction_ids) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final JdbcTemplate plainJdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+
+    private final DataSource dataSource;
+    private final ObjectProvider<LedgerJournalProjector> journalProjector;
+
+    @Value("${app.reconciliation.parallelism:3}")
+    private int parallelism;
+
+    // Connections of the pool the cap leaves for everything else
+    @Value("${app.reconciliation.reserved-connections:6}")
+    private int reservedConnections;
+
+    @Value("${app.reconciliation.confirm-attempts:3}")
+    private int confirmAttempts;
+
+    @Value("${app.reconciliation.confirm-wait-ms:5000}")
+    private long confirmWaitMs;
+
+    @Value("${app.reconciliation.wallets-per-partition:2000}")
+    private int walletsPerPartition;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "ledger-reconciliation"));
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile RunProgress progress;
+    private volatile ForkJoinPool activePool;
+    private int workers;
+
+    public LedgerReconciliationService(DataSource dataSource,
+                                       PlatformTransactionManager transactionManager,
+                                       ObjectProvider<LedgerJournalProjector> journalProjector,
+                                       @Value("${app.reconciliation.fetch-size:1000}") int fetchSize) {
+        this.dataSource = dataSource;
+        this.journalProjector = journalProjector;
+        this.plainJdbcTemplate = new JdbcTemplate(dataSource);
+        this.plainJdbcTemplate.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(plainJdbcTemplate);
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @PostConstruct
+    void init() throws SQLException {
+        workers = parallelism;
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            workers = Math.max(1, Math.min(parallelism, poolSize - reservedConnections));
+        }
+        if (workers < parallelism) {
+            log.warn("Reconciliation parallelism capped at {} to leave {} pool connections free",
+                    workers, reservedConnections);
+        }
+    }
+
+    // Interrupts a run in progress, which is then recorded as failed
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+        ForkJoinPool pool = activePool;
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    @Scheduled(cron = "${app.reconciliation.cron:0 30 1 * * *}")
+    public void nightly() {
+        if (!start(Mode.INCREMENTAL)) {
+            log.warn("Skipping nightly reconciliation: a run is in progress");
+        }
+    }
+
+    // Starts a run in the background and returns immediately; false if one is running
+    public boolean start(Mode mode) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        coordinator.submit(() -> {
+            try {
+                reconcile(mode);
+            } catch (RuntimeException e) {
+                log.error("Ledger reconciliation failed", e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public RunSummary status() {
+        RunProgress current = progress;
+        return current == null ? null : current.summary();
+    }
+
+    private void reconcile(Mode requestedMode) {
+        PreviousRun previous = jdbcTemplate.query(LAST_COMPLETED_RUN_SQL,
+                        (rs, rowNum) -> new PreviousRun(
+                                rs.getObject("id", UUID.class),
+                                rs.getObject("started_at", LocalDateTime.class)))
+                .stream()
+                .findFirst()
+                .orElse(null);
+        // Without a completed run there is nothing verified to start from
+        Mode mode = previous == null ? Mode.FULL : requestedMode;
+
+        // Archived ledger months are gone; every wallet starts at the latest
+        // checkpoint written at or before the end of the last archived month
+        LocalDateTime archivedUntil = jdbcTemplate.queryForObject(ARCHIVED_UNTIL_SQL,
+                new MapSqlParameterSource(), LocalDateTime.class);
+
+        List<UUID> bounds = jdbcTemplate.queryForList(PARTITION_BOUNDS_SQL,
+                new MapSqlParameterSource("partitionSize", walletsPerPartition), UUID.class);
+
+        RunProgress run = new RunProgress(EntityIds.newId(), mode, LocalDateTime.now(), bounds.size());
+        progress = run;
+        jdbcTemplate.update(INSERT_RUN_SQL, new MapSqlParameterSource()
+                .addValue("id", run.id)
+                .addValue("mode", mode.name())
+                .addValue("previousRunId", previous != null ? previous.id() : null, Types.OTHER)
+                .addValue("startedAt", run.startedAt));
+        log.info("Ledger reconciliation {} started ({}, {} partitions)", run.id, mode, bounds.size());
+
+        PartitionResult result;
+        // No compensation threads beyond the workers: a blocked join must not open
+        // another connection
+        ForkJoinPool pool = new ForkJoinPool(workers, ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+                null, false, workers, workers, 1, saturated -> true, 60, TimeUnit.SECONDS);
+        activePool = pool;
+        try {
+            result = bounds.isEmpty()
+                    ? new PartitionResult()
+                    : pool.invoke(new ReconcileTask(bounds, 0, bounds.size(), mode, previous,
+                            archivedUntil, run));
+            result.drifts.retainAll(confirmDrifts(result.drifts, mode, previous, archivedUntil));
+        } catch (RuntimeException e) {
+            run.finish(RunStatus.FAILED, new PartitionResult());
+            finishRun(run);
+            throw e;
+        } finally {
+            activePool = null;
+            pool.shutdown();
+        }
+
+        saveDrifts(run.id, result.drifts);
+        run.finish(RunStatus.COMPLETED, result);
+        finishRun(run);
+
+        if (result.drifts.isEmpty()) {
+            log.info("Ledger reconciliation {} completed: {} wallets, {} entries, no drift",
+                    run.id, result.wallets, result.entries);
+        } else {
+            log.error("Ledger reconciliation {} found {} drifted wallets out of {}",
+                    run.id, result.drifts.size(), result.wallets);
+        }
+    }
+
+    // Re-checks drifted wallets once the journal projector has caught up and keeps
+    // those that drift every time, minus wallets with entries still waiting for
+    // their transaction. Without the journal, entries commit with their balances.
+    private List<Drift> confirmDrifts(List<Drift> drifts, Mode mode, PreviousRun previous,
+                                      LocalDateTime archivedUntil) {
+        LedgerJournalProjector projector = journalProjector.getIfAvailable();
+        if (projector == null || drifts.isEmpty()) {
+            return drifts;
+        }
+
+        List<Drift> confirmed = drifts;
+        for (int attempt = 0; attempt < confirmAttempts && !confirmed.isEmpty(); attempt++) {
+            if (!projector.catchUp(Duration.ofMillis(confirmWaitMs))) {
+                log.warn("Ledger journal projection did not catch up within {} ms", confirmWaitMs);
+            }
+            Set<UUID> driftedIds = confirmed.stream().map(Drift::walletId).collect(Collectors.toSet());
+            Set<UUID> stillDrifting = reconcile(params(mode, previous, archivedUntil)
+                    .addValue("walletIds", driftedIds), WALLETS_FILTER).drifts.stream()
+                    .map(Drift::walletId)
+                    .collect(Collectors.toSet());
+            confirmed = confirmed.stream().filter(d -> stillDrifting.contains(d.walletId())).toList();
+        }
+
+        Set<UUID> pendingWallets = projector.pendingWallets();
+        List<Drift> reported = confirmed.stream()
+                .filter(d -> !pendingWallets.contains(d.walletId()))
+                .toList();
+        if (drifts.size() > reported.size()) {
+            log.info("{} of {} drifted wallets were projection lag, {} have unprojected entries",
+                    drifts.size() - confirmed.size(), drifts.size(), confirmed.size() - reported.size());
+        }
+        return reported;
+    }
+
+    private PartitionResult reconcilePartition(UUID lower, UUID upper, Mode mode, PreviousRun previous,
+                                               LocalDateTime archivedUntil) {
+        return reconcile(params(mode, previous, archivedUntil)
+                .addValue("lower", lower)
+                .addValue("upper", upper, Types.OTHER), RANGE_FILTER);
+    }
+
+    private static MapSqlParameterSource params(Mode mode, PreviousRun previous,
+                                                LocalDateTime archivedUntil) {
+        return new MapSqlParameterSource()
+                .addValue("verifiedUntil", mode == Mode.INCREMENTAL
+                        ? previous.startedAt() : archivedUntil, Types.TIMESTAMP)
+                .addValue("archivedUntil", archivedUntil, Types.TIMESTAMP)
+                .addValue("previousRunId", mode == Mode.INCREMENTAL
+                        ? previous.id() : null, Types.OTHER);
+    }
+
+    private PartitionResult reconcile(MapSqlParameterSource params, String walletFilter) {
+        String sql = RECONCILE_SQL.replace("{walletFilter}", walletFilter);
+        PartitionResult result = new PartitionResult();
+        snapshotTransaction.executeWithoutResult(status ->
+                jdbcTemplate.query(sql, params, (RowCallbackHandler) rs -> {
+                    result.wallets++;
+                    result.entries += rs.getLong("entries");
+
+                    BigDecimal walletBalance = rs.getBigDecimal("wallet_balance");
+                    BigDecimal ledgerBalance = rs.getBigDecimal("ledger_balance");
+                    long chainBreaks = rs.getLong("chain_breaks");
+                    if (walletBalance.compareTo(ledgerBalance) != 0 || chainBreaks > 0) {
+                        Array broken = rs.getArray("broken_transactions");
+                        List<UUID> transactionIds = broken == null
+                                ? List.of() : Arrays.asList((UUID[]) broken.getArray());
+                        result.drifts.add(new Drift(
+                                rs.getObject("wallet_id", UUID.class),
+                                rs.getString("wallet_number"),
+                                walletBalance,
+                                ledgerBalance,
+                                chainBreaks,
+                                transactionIds));
+                    }
+                }));
+        return result;
+    }
+
+    private void saveDrifts(UUID runId, List<Drift> drifts) {
+        plainJdbcTemplate.batchUpdate(INSERT_DRIFT_SQL, drifts, 500, (ps, drift) -> {
+            ps.setObject(1, runId);
+            ps.setObject(2, drift.walletId());
+            ps.setString(3, drift.walletNumber());
+            ps.setBigDecimal(4, drift.walletBalance());
+            ps.setBigDecimal(5, drift.ledgerBalance());
+            ps.setLong(6, drift.chainBreaks());
+            ps.setArray(7, ps.getConnection().createArrayOf("uuid",
+                    drift.transactionIds().toArray()));
+        });
+    }
+
+    private void finishRun(RunProgress run) {
+        RunSummary summary = run.summary();
+        jdbcTemplate.update(FINISH_RUN_SQL, new MapSqlParameterSource()
+                .addValue("id", run.id)
+                .addValue("status", summary.status().name())
+                .addValue("finishedAt", summary.finishedAt())
+                .addValue("wallets", summary.walletsChecked())
+                .addValue("entries", summary.entriesScanned())
+                .addValue("drifted", summary.driftedWallets()));
+    }
+
+    // Splits the partition list in halves until a single id range is left
+    private final class ReconcileTask extends RecursiveTask<PartitionResult> {
+
+        private final List<UUID> bounds;
+        private final int from;
+        private final int to;
+        private final Mode mode;
+        private final PreviousRun previous;
+        private final LocalDateTime archivedUntil;
+        private final RunProgress run;
+
+        ReconcileTask(List<UUID> bounds, int from, int to, Mode mode,
+                      PreviousRun previous, LocalDateTime archivedUntil, RunProgress run) {
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+            this.mode = mode;
+            this.previous = previous;
+            this.archivedUntil = archivedUntil;
+            this.run = run;
+        }
+
+        @Override
+        protected PartitionResult compute() {
+            if (to - from == 1) {
+                UUID upper = to < bounds.size() ? bounds.get(to) : null;
+                PartitionResult result = reconcilePartition(bounds.get(from), upper, mode, previous,
+                        archivedUntil);
+                run.partitionsDone.incrementAndGet();
+                return result;
+            }
+
+            int middle = (from + to) >>> 1;
+            ReconcileTask left = new ReconcileTask(bounds, from, middle, mode, previous,
+                    archivedUntil, run);
+            left.fork();
+            PartitionResult right = new ReconcileTask(bounds, middle, to, mode, previous,
+                    archivedUntil, run).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private static final class PartitionResult {
+        private long wallets;
+        private long entries;
+        private final List<Drift> drifts = new ArrayList<>();
+
+        PartitionResult merge(PartitionResult other) {
+            wallets += other.wallets;
+            entries += other.entries;
+            drifts.addAll(other.drifts);
+            return this;
+        }
+    }
+
+    private static final class RunProgress {
+        private final UUID id;
+        private final Mode mode;
+        private final LocalDateTime startedAt;
+        private final int partitions;
+        private final AtomicInteger partitionsDone = new AtomicInteger();
+        private volatile RunStatus status = RunStatus.RUNNING;
+        private volatile LocalDateTime finishedAt;
+        private volatile PartitionResult result;
+
+        RunProgress(UUID id, Mode mode, LocalDateTime startedAt, int partitions) {
+            this.id = id;
+            this.mode = mode;
+            this.startedAt = startedAt;
+            this.partitions = partitions;
+        }
+
+        void finish(RunStatus finalStatus, PartitionResult finalResult) {
+            result = finalResult;
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        RunSummary summary() {
+            PartitionResult current = result;
+            return new RunSummary(
+                    id,
+                    mode,
+                    status,
+                    startedAt,
+                    finishedAt,
+                    partitions,
+                    partitionsDone.get(),
+                    current != null ? current.wallets : 0,
+                    current != null ? current.entries : 0,
+                    current != null ? current.drifts.size() : 0,
+                    current != null ? current.drifts.stream().limit(100).toList() : List.of());
+        }
+    }
+
+    private record PreviousRun(UUID id, LocalDateTime startedAt) {}
+
+    public enum Mode {
+        FULL, INCREMENTAL
+    }
+
+    public enum RunStatus {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    public record Drift(
+            UUID walletId,
+            String walletNumber,
+            BigDecimal walletBalance,
+            BigDecimal ledgerBalance,
+            long chainBreaks,
+            List<UUID> transactionIds
+    ) {}
+
+    public record RunSummary(
+            UUID id,
+            Mode mode,
+            RunStatus status,
+            LocalDateTime startedAt,
+            LocalDateTime finishedAt,
+            int partitions,
+            int partitionsDone,
+            long walletsChecked,
+            long entriesScanned,
+            long driftedWallets,
+            List<Drift> drifts
+    ) {}
+}
@@ -0,0 +1,33 @@
+package com.fintech.digiwallet.service.reconciliation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// /actuator/reconciliation: GET shows the current or last run with up to 100
+// drifted wallets, POST {"mode": "FULL"} starts a run (incremental by default)
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "reconciliation")
+public class ReconciliationEndpoint {
+
+    private final LedgerReconciliationService reconciliationService;
+
+    @ReadOperation
+    public LedgerReconciliationService.RunSummary status() {
+        return reconciliationService.status();
+    }
+
+    @WriteOperation
+    public Map<String, Object> start(@Nullable String mode) {
+        LedgerReconciliationService.Mode runMode = mode != null
+                ? LedgerReconciliationService.Mode.valueOf(mode.toUpperCase())
+                : LedgerReconciliationService.Mode.INCREMENTAL;
+        return Map.of("mode", runMode.name(), "started", reconciliationService.start(runMode));
+    }
+}
@@ -0,0 +1,35 @@
+package com.fintech.digiwallet.service.statement;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.Map;
+
+// /actuator/statements: GET shows progress and throughput of the current or last
+// run, POST {"month": "2024-05"} starts (or resumes) a run, by default for last month
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "statements")
+@ConditionalOnProperty(name = "app.statement.batch.enabled", havingValue = "true")
+public class StatementBatchEndpoint {
+
+    private final StatementBatchJob statementBatchJob;
+
+    @ReadOperation
+    public StatementBatchJob.ProgressSnapshot status() {
+        return statementBatchJob.status();
+    }
+
+    @WriteOperation
+    public Map<String, Object> start(@Nullable String month) {
+        YearMonth period = month != null ? YearMonth.parse(month) : YearMonth.now().minusMonths(1);
+        boolean started = statementBatchJob.start(period);
+        return Map.of("month", period.toString(), "started", started);
+    }
+}
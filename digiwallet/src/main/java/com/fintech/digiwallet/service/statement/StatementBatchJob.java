@@ -0,0 +1,510 @@
+package com.fintech.digiwallet.service.statement;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+// Writes month-end statements for every wallet.
+//
+// Wallets are split into contiguous id ranges of a fixed size. Each partition is
+// one read of its wallets (with the opening balance, i.e. the last balance_after
+// before the month, seeking back no further than the wallet's latest ledger
+// checkpoint before it, whose balance it falls back to once the entries are
+// archived, plus any deltas recorded after it) and one cursor over the month's
+// ledger entries ordered by wallet, merged into a gzip NDJSON file with one
+// statement per line. A bounded pool works through the partitions in parallel.
+// Striped wallets record no balance_after; their running balance is carried
+// forward from the opening balance.
+//
+// The partition bounds of a month are stored with its files and every finished
+// partition is added to a checkpoint, so a failed or interrupted run resumes with
+// the partitions that are still missing.
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.statement.batch.enabled", havingValue = "true")
+public class StatementBatchJob {
+
+    private static final String PARTITION_BOUNDS_SQL = """
+            SELECT id FROM (
+                SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS rn
+                FROM wallets
+                WHERE created_at < :periodEnd
+            ) numbered
+            WHERE (rn - 1) % :partitionSize = 0
+            ORDER BY id
+            """;
+
+    private static final String WALLETS_SQL = """
+            SELECT w.id, w.wallet_number, w.currency,
+                   COALESCE(a.balance_after, cp.balance, 0) + COALESCE(
+                       (SELECT SUM(CASE WHEN l.entry_type = 'CREDIT' THEN l.amount ELSE -l.amount END)
+                        FROM ledger_entries l
+                        WHERE l.wallet_id = w.id AND l.created_at < :periodStart
+                          AND (a.id IS NOT NULL AND (l.created_at, l.id) > (a.created_at, a.id)
+                               OR a.id IS NULL AND (cp.last_entry_at IS NULL
+                                   OR (l.created_at, l.id) > (cp.last_entry_at, cp.last_entry_id)))),
+                       0) AS opening_balance
+            FROM wallets w
+            LEFT JOIN LATERAL (
+                SELECT c.balance, c.last_entry_at, c.last_entry_id
+                FROM ledger_checkpoints c
+                WHERE c.wallet_id = w.id AND c.checkpoint_at < :periodStart
+                ORDER BY c.checkpoint_at DESC
+                LIMIT 1
+            ) cp ON TRUE
+            LEFT JOIN LATERAL (
+                SELECT l.id, l.created_at, l.balance_after
+                FROM ledger_entries l
+                WHERE l.wallet_id = w.id AND l.created_at < :periodStart
+                  AND l.balance_after IS NOT NULL
+                  AND (cp.last_entry_at IS NULL
+                       OR (l.created_at, l.id) > (cp.last_entry_at, cp.last_entry_id))
+                ORDER BY l.created_at DESC, l.id DESC
+                LIMIT 1
+            ) a ON TRUE
+            WHERE w.id >= CAST(:lower AS UUID)
+              AND (CAST(:upper AS UUID) IS NULL OR w.id < CAST(:upper AS UUID))
+              AND w.created_at < :periodEnd
+            ORDER BY w.id
+            """;
+
+    private static final String ENTRIES_SQL = """
+            SELECT l.wallet_id, l.created_at, l.reference, l.entry_type, l.amount,
+                   l.balance_after, l.description
+            FROM ledger_entries l
+            WHERE l.wallet_id >= CAST(:lower AS UUID)
+              AND (CAST(:upper AS UUID) IS NULL OR l.wallet_id < CAST(:upper AS UUID))
+              AND l.created_at >= :periodStart AND l.created_at < :periodEnd
+            ORDER BY l.wallet_id, l.created_at, l.id
+            """;
+
+    private static final String PARTITIONS_FILE = "partitions";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String FILE_SUFFIX = ".ndjson.gz";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final JsonFactory jsonFactory;
+    private final Path directory;
+    private final int workers;
+    private final int walletsPerPartition;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "statement-batch"));
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<RunProgress> progress = new AtomicReference<>();
+
+    public StatementBatchJob(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${app.statement.batch.directory:./data/statements}") String directory,
+                             @Value("${app.statement.batch.workers:4}") int workers,
+                             @Value("${app.statement.batch.wallets-per-partition:1000}") int walletsPerPartition,
+                             @Value("${app.statement.batch.fetch-size:1000}") int fetchSize) {
+        // PostgreSQL only honours the fetch size inside a transaction, hence the template
+        JdbcTemplate cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(cursorTemplate);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonFactory = objectMapper.getFactory();
+        this.directory = Paths.get(directory);
+        this.workers = workers;
+        this.walletsPerPartition = walletsPerPartition;
+    }
+
+    // Hands the run to the coordinator so the shared scheduler thread is not held for hours
+    @Scheduled(cron = "${app.statement.batch.cron:0 0 2 1 * *}")
+    public void generatePreviousMonth() {
+        YearMonth month = YearMonth.now().minusMonths(1);
+        if (!start(month)) {
+            log.warn("Skipping scheduled statement run for {}: a run is in progress", month);
+        }
+    }
+
+    // Starts a run in the background and returns immediately; false if one is running
+    public boolean start(YearMonth month) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        coordinator.submit(() -> {
+            try {
+                generate(month);
+            } catch (RuntimeException e) {
+                log.error("Statement run for {} failed", month, e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    // Interrupts a run in progress; its completed partitions are checkpointed and a
+    // later start of the same month resumes from there
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    public ProgressSnapshot status() {
+        RunProgress current = progress.get();
+        return current == null ? null : current.snapshot();
+    }
+
+    private void generate(YearMonth month) {
+        RunProgress run = new RunProgress(month);
+        progress.set(run);
+
+        Path monthDirectory = directory.resolve(month.toString());
+        List<UUID> bounds;
+        Set<Integer> completed;
+        try {
+            Files.createDirectories(monthDirectory);
+            bounds = loadOrCreateBounds(monthDirectory, month);
+            completed = readCheckpoint(monthDirectory);
+        } catch (IOException e) {
+            run.finish(State.FAILED);
+            throw new UncheckedIOException(e);
+        }
+
+        run.partitionsTotal.set(bounds.size());
+        run.partitionsSkipped.set(completed.size());
+        log.info("Generating statements for {}: {} partitions, {} already done",
+                month, bounds.size(), completed.size());
+
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers,
+                runnable -> new Thread(runnable, "statement-worker-" + threads.incrementAndGet()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < bounds.size(); i++) {
+                if (completed.contains(i)) {
+                    continue;
+                }
+                int partition = i;
+                UUID lower = bounds.get(i);
+                UUID upper = i + 1 < bounds.size() ? bounds.get(i + 1) : null;
+                futures.add(pool.submit(() -> {
+                    try {
+                        writePartition(monthDirectory, month, partition, lower, upper, run);
+                        markCompleted(monthDirectory, completed, partition);
+                        run.partitionsCompleted.incrementAndGet();
+                    } catch (RuntimeException | IOException e) {
+                        run.partitionsFailed.incrementAndGet();
+                        log.error("Statement partition {} of {} failed", partition, month, e);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.finish(State.FAILED);
+            return;
+        } catch (Exception e) {
+            run.finish(State.FAILED);
+            throw new IllegalStateException("Statement run for " + month + " failed", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        run.finish(run.partitionsFailed.get() == 0 ? State.COMPLETED : State.FAILED);
+        ProgressSnapshot result = run.snapshot();
+        log.info("Statements for {} finished ({}): {} wallets, {} entries in {}s",
+                month, result.state(), result.wallets(), result.entries(), result.elapsedSeconds());
+    }
+
+    private void writePartition(Path monthDirectory, YearMonth month, int partition,
+                                UUID lower, UUID upper, RunProgress run) throws IOException {
+        LocalDateTime periodStart = month.atDay(1).atStartOfDay();
+        LocalDateTime periodEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("lower", lower)
+                .addValue("upper", upper, Types.OTHER)
+                .addValue("periodStart", periodStart)
+                .addValue("periodEnd", periodEnd);
+
+        Path file = monthDirectory.resolve(String.format("statements-%05d%s", partition, FILE_SUFFIX));
+        Path temp = monthDirectory.resolve(file.getFileName() + ".part");
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024), StandardCharsets.UTF_8));
+             JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            generator.setRootValueSeparator(null);
+            readOnlyTransaction.executeWithoutResult(status -> {
+                List<PartitionWallet> wallets = jdbcTemplate.query(WALLETS_SQL, params,
+                        (rs, rowNum) -> new PartitionWallet(
+                                rs.getObject("id", UUID.class),
+                                rs.getString("wallet_number"),
+                                rs.getString("currency"),
+                                rs.getBigDecimal("opening_balance")));
+
+                StatementWriter statements = new StatementWriter(generator, wallets,
+                        month, run);
+                jdbcTemplate.query(ENTRIES_SQL, params, (RowCallbackHandler) statements::accept);
+                statements.finish();
+            });
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<UUID> loadOrCreateBounds(Path monthDirectory, YearMonth month) throws IOException {
+        Path file = monthDirectory.resolve(PARTITIONS_FILE);
+        if (Files.exists(file)) {
+            return Files.readAllLines(file).stream()
+                    .filter(line -> !line.isBlank())
+                    .map(UUID::fromString)
+                    .toList();
+        }
+
+        // Bounds are fixed on the first attempt so a resumed run sees the same partitions
+        List<UUID> bounds = jdbcTemplate.queryForList(PARTITION_BOUNDS_SQL,
+                new MapSqlParameterSource()
+                        .addValue("periodEnd", month.plusMonths(1).atDay(1).atStartOfDay())
+                        .addValue("partitionSize", walletsPerPartition),
+                UUID.class);
+        Path temp = monthDirectory.resolve(PARTITIONS_FILE + ".tmp");
+        Files.write(temp, bounds.stream().map(UUID::toString).toList());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return bounds;
+    }
+
+    private Set<Integer> readCheckpoint(Path monthDirectory) throws IOException {
+        Path file = monthDirectory.resolve(CHECKPOINT_FILE);
+        Set<Integer> completed = new TreeSet<>();
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file)) {
+                if (!line.isBlank()) {
+                    completed.add(Integer.parseInt(line.trim()));
+                }
+            }
+        }
+        return completed;
+    }
+
+    private synchronized void markCompleted(Path monthDirectory, Set<Integer> completed,
+                                            int partition) throws IOException {
+        completed.add(partition);
+        Path file = monthDirectory.resolve(CHECKPOINT_FILE);
+        Path temp = monthDirectory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.write(temp, completed.stream().map(String::valueOf).toList());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Merges the ordered entry cursor into the partition's wallets. Both are ordered
+    // by wallet id in the database, so wallets without entries in the month are
+    // written as they are passed over.
+    private static final class StatementWriter {
+
+        private final JsonGenerator generator;
+        private final List<PartitionWallet> wallets;
+        private final String period;
+        private final RunProgress run;
+
+        private int index;
+        private PartitionWallet current;
+        private BigDecimal closingBalance;
+        private int entryCount;
+
+        StatementWriter(JsonGenerator generator, List<PartitionWallet> wallets,
+                        YearMonth month, RunProgress run) {
+            this.generator = generator;
+            this.wallets = wallets;
+            this.period = month.toString();
+            this.run = run;
+        }
+
+        void accept(ResultSet rs) throws SQLException {
+            UUID walletId = rs.getObject("wallet_id", UUID.class);
+            try {
+                if (current == null || !current.id().equals(walletId)) {
+                    closeCurrent();
+                    while (index < wallets.size() && !wallets.get(index).id().equals(walletId)) {
+                        open(wallets.get(index++));
+                        closeCurrent();
+                    }
+                    if (index == wallets.size()) {
+                        throw new IllegalStateException("Ledger entry for unknown wallet " + walletId);
+                    }
+                    open(wallets.get(index++));
+                }
+
+                BigDecimal amount = rs.getBigDecimal("amount");
+                BigDecimal balanceAfter = rs.getBigDecimal("balance_after");
+                if (balanceAfter == null) {
+                    balanceAfter = "CREDIT".equals(rs.getString("entry_type"))
+                            ? closingBalance.add(amount) : closingBalance.subtract(amount);
+                }
+                generator.writeStartObject();
+                generator.writeStringField("createdAt", rs.getObject("created_at", LocalDateTime.class).toString());
+                generator.writeStringField("reference", rs.getString("reference"));
+                generator.writeStringField("entryType", rs.getString("entry_type"));
+                generator.writeStringField("amount", amount.toPlainString());
+                generator.writeStringField("balanceAfter", balanceAfter.toPlainString());
+                generator.writeStringField("description", rs.getString("description"));
+                generator.writeEndObject();
+
+                closingBalance = balanceAfter;
+                entryCount++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() {
+            try {
+                closeCurrent();
+                while (index < wallets.size()) {
+                    open(wallets.get(index++));
+                    closeCurrent();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void open(PartitionWallet wallet) throws IOException {
+            BigDecimal opening = wallet.openingBalance() != null
+                    ? wallet.openingBalance() : BigDecimal.ZERO;
+            current = wallet;
+            closingBalance = opening;
+            entryCount = 0;
+
+            generator.writeStartObject();
+            generator.writeStringField("walletId", wallet.id().toString());
+            generator.writeStringField("walletNumber", wallet.walletNumber());
+            generator.writeStringField("currency", wallet.currency());
+            generator.writeStringField("period", period);
+            generator.writeStringField("openingBalance", opening.toPlainString());
+            generator.writeArrayFieldStart("entries");
+        }
+
+        private void closeCurrent() throws IOException {
+            if (current == null) {
+                return;
+            }
+            generator.writeEndArray();
+            generator.writeNumberField("entryCount", entryCount);
+            generator.writeStringField("closingBalance", closingBalance.toPlainString());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+
+            run.wallets.incrementAndGet();
+            run.entries.addAndGet(entryCount);
+            current = null;
+        }
+    }
+
+    private record PartitionWallet(UUID id, String walletNumber, String currency,
+                                   BigDecimal openingBalance) {}
+
+    private static final class RunProgress {
+        private final YearMonth month;
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger partitionsTotal = new AtomicInteger();
+        private final AtomicInteger partitionsSkipped = new AtomicInteger();
+        private final AtomicInteger partitionsCompleted = new AtomicInteger();
+        private final AtomicInteger partitionsFailed = new AtomicInteger();
+        private final AtomicLong wallets = new AtomicLong();
+        private final AtomicLong entries = new AtomicLong();
+        private volatile State state = State.RUNNING;
+        private volatile Instant finishedAt;
+
+        RunProgress(YearMonth month) {
+            this.month = month;
+        }
+
+        void finish(State finalState) {
+            finishedAt = Instant.now();
+            state = finalState;
+        }
+
+        ProgressSnapshot snapshot() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+            long walletCount = wallets.get();
+            long entryCount = entries.get();
+            return new ProgressSnapshot(
+                    month.toString(),
+                    state,
+                    partitionsTotal.get(),
+                    partitionsSkipped.get(),
+                    partitionsCompleted.get(),
+                    partitionsFailed.get(),
+                    walletCount,
+                    entryCount,
+                    startedAt,
+                    finishedAt,
+                    (long) seconds,
+                    walletCount / seconds,
+                    entryCount / seconds);
+        }
+    }
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    public record ProgressSnapshot(
+            String month,
+            State state,
+            int partitionsTotal,
+            int partitionsSkipped,
+            int partitionsCompleted,
+            int partitionsFailed,
+            long wallets,
+            long entries,
+            Instant startedAt,
+            Instant finishedAt,
+            long elapsedSeconds,
+            double walletsPerSecond,
+            double entriesPerSecond
+    ) {}
+}
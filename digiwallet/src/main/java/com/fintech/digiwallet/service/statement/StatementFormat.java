@@ -0,0 +1,33 @@
+package com.fintech.digiwallet.service.statement;
+
+import com.fintech.digiwallet.exception.InvalidTransactionException;
+
+public enum StatementFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    StatementFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public static StatementFormat from(String value) {
+        for (StatementFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new InvalidTransactionException("Unsupported statement format: " + value);
+    }
+}
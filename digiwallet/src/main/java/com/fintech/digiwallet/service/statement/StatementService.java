@@ -0,0 +1,168 @@
+package com.fintech.digiwallet.service.statement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fintech.digiwallet.domain.enums.AccountType;
+import com.fintech.digiwallet.domain.projection.LedgerStatementLine;
+import com.fintech.digiwallet.domain.projection.WalletMetadata;
+import com.fintech.digiwallet.domain.repository.LedgerEntryRepository;
+import com.fintech.digiwallet.exception.InvalidTransactionException;
+import com.fintech.digiwallet.service.WalletService;
+import com.fintech.digiwallet.service.ledger.checkpoint.LedgerCheckpointService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Streams a wallet's ledger entries for a date range straight to the response.
+// Entries are read through a forward-only cursor and written as they arrive, so
+// memory use does not depend on the size of the statement. Striped wallets record
+// no balance_after; their running balance is carried forward from the balance
+// before the first entry.
+@Service
+@Slf4j
+public class StatementService {
+
+    private static final String CSV_HEADER =
+            "created_at,reference,entry_type,amount,currency,balance_after,description";
+    private static final int WRITE_BUFFER_SIZE = 16 * 1024;
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final WalletService walletService;
+    private final LedgerCheckpointService ledgerCheckpointService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public StatementService(LedgerEntryRepository ledgerEntryRepository,
+                            WalletService walletService,
+                            LedgerCheckpointService ledgerCheckpointService,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.walletService = walletService;
+        this.ledgerCheckpointService = ledgerCheckpointService;
+        // One JSON document per line, so the writer must not pretty print
+        this.objectMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Validates the request up front so errors still produce a normal error
+    // response; the returned body only runs once the response is committed.
+    public StreamingResponseBody streamStatement(String walletNumber, LocalDate from,
+                                                 LocalDate to, StatementFormat format) {
+        if (from.isAfter(to)) {
+            throw new InvalidTransactionException("Statement start date must not be after end date");
+        }
+        WalletMetadata wallet = walletService.getWalletMetadata(walletNumber);
+
+        return outputStream -> {
+            Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+            long lines = readOnlyTransaction.execute(status -> {
+                try (Stream<LedgerStatementLine> entries = ledgerEntryRepository
+                        .findWalletLedgerEntriesBetween(wallet.id(),
+                                from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+                    return write(writer, entries.iterator(), format,
+                            wallet, from.atStartOfDay());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            log.info("Streamed {} statement lines for wallet {} ({} to {})",
+                    lines, walletNumber, from, to);
+        };
+    }
+
+    private long write(Writer writer, Iterator<LedgerStatementLine> entries,
+                       StatementFormat format, WalletMetadata wallet,
+                       LocalDateTime start) throws IOException {
+        if (format == StatementFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        // Send headers and the first bytes before the cursor is drained
+        writer.flush();
+
+        long count = 0;
+        BigDecimal balance = null;
+        while (entries.hasNext()) {
+            LedgerStatementLine line = entries.next();
+            if (line.balanceAfter() != null) {
+                balance = line.balanceAfter();
+            } else {
+                if (balance == null) {
+                    // Only statements that start on an unrecorded balance pay for this;
+                    // timestamps are stored to the microsecond
+                    balance = ledgerCheckpointService.getBalanceAt(wallet.id(), start.minusNanos(1_000));
+                }
+                balance = line.entryType() == AccountType.CREDIT
+                        ? balance.add(line.amount()) : balance.subtract(line.amount());
+            }
+            if (format == StatementFormat.CSV) {
+                writeCsv(writer, line, balance);
+            } else {
+                writer.write(objectMapper.writeValueAsString(toJson(line, balance)));
+            }
+            writer.write('\n');
+            count++;
+        }
+        return count;
+    }
+
+    private void writeCsv(Writer writer, LedgerStatementLine line,
+                          BigDecimal balanceAfter) throws IOException {
+        writer.write(line.createdAt().toString());
+        writer.write(',');
+        writer.write(csv(line.reference()));
+        writer.write(',');
+        writer.write(line.entryType().name());
+        writer.write(',');
+        writer.write(line.amount().toPlainString());
+        writer.write(',');
+        writer.write(line.currency().name());
+        writer.write(',');
+        writer.write(balanceAfter.toPlainString());
+        writer.write(',');
+        writer.write(csv(line.description()));
+    }
+
+    private Map<String, Object> toJson(LedgerStatementLine line, BigDecimal balanceAfter) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("createdAt", line.createdAt().toString());
+        json.put("reference", line.reference());
+        json.put("entryType", line.entryType());
+        json.put("amount", line.amount().toPlainString());
+        json.put("currency", line.currency());
+        json.put("balanceAfter", balanceAfter.toPlainString());
+        json.put("description", line.description());
+        return json;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
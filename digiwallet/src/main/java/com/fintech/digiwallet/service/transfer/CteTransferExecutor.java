@@ -0,0 +1,229 @@
+package com.fintech.digiwallet.service.transfer;
+
+import com.fintech.digiwallet.domain.entity.EntityIds;
+import com.fintech.digiwallet.domain.enums.TransactionStatus;
+import com.fintech.digiwallet.domain.enums.TransactionType;
+import com.fintech.digiwallet.domain.projection.WalletMetadata;
+import com.fintech.digiwallet.dto.request.TransferRequest;
+import com.fintech.digiwallet.dto.response.TransactionResponse;
+import com.fintech.digiwallet.exception.InsufficientFundsException;
+import com.fintech.digiwallet.exception.WalletNotFoundException;
+import com.fintech.digiwallet.service.TransactionIdGenerator;
+import com.fintech.digiwallet.service.WalletService;
+import com.fintech.digiwallet.service.wallet.WalletBalanceCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.UUID;
+
+// Applies the whole transfer in one data-modifying CTE, i.e. one database round
+// trip. The wallet rows are locked in id order inside the statement itself, and
+// every later step only produces rows if the previous one succeeded.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.transaction.transfer.executor", havingValue = "cte")
+public class CteTransferExecutor implements TransferExecutor {
+
+    private static final String TRANSFER_SQL = """
+            WITH locked AS (
+                SELECT id FROM wallets
+                WHERE id IN (CAST(:sourceWalletId AS UUID), CAST(:destinationWalletId AS UUID))
+                ORDER BY id
+                FOR UPDATE
+            ),
+            debit AS (
+                UPDATE wallets
+                SET balance = balance - CAST(:totalAmount AS NUMERIC),
+                    available_balance = available_balance - CAST(:totalAmount AS NUMERIC),
+                    version = version + 1,
+                    updated_at = CAST(:now AS TIMESTAMP)
+                WHERE id = CAST(:sourceWalletId AS UUID)
+                  AND available_balance >= CAST(:totalAmount AS NUMERIC)
+                  AND (SELECT COUNT(*) FROM locked) = 2
+                RETURNING balance + (SELECT COALESCE(SUM(s.balance), 0)
+                    FROM wallet_balance_stripes s WHERE s.wallet_id = wallets.id) AS balance,
+                    version
+            ),
+            credit AS (
+                UPDATE wallets
+                SET balance = balance + CAST(:amount AS NUMERIC),
+                    available_balance = available_balance + CAST(:amount AS NUMERIC),
+                    version = version + 1,
+                    updated_at = CAST(:now AS TIMESTAMP)
+                WHERE id = CAST(:destinationWalletId AS UUID)
+                  AND EXISTS (SELECT 1 FROM debit)
+                RETURNING balance + (SELECT COALESCE(SUM(s.balance), 0)
+                    FROM wallet_balance_stripes s WHERE s.wallet_id = wallets.id) AS balance,
+                    version
+            ),
+            stamp AS (
+                -- Taken once both wallet rows are locked, so ledger timestamps follow
+                -- the order the balances changed in, as on the JPA path
+                SELECT CAST(clock_timestamp() AS TIMESTAMP) AS at
+                FROM debit, credit
+            ),
+            txn AS (
+                INSERT INTO transactions (id, transaction_ref, source_wallet_id,
+                    destination_wallet_id, transaction_type, status, amount, currency, fee,
+                    description, idempotency_key, metadata, completed_at, created_at,
+                    updated_at, version)
+                SELECT CAST(:transactionId AS UUID), CAST(:transactionRef AS VARCHAR),
+                    CAST(:sourceWalletId AS UUID), CAST(:destinationWalletId AS UUID),
+                    CAST(:transactionType AS VARCHAR), CAST(:status AS VARCHAR),
+                    CAST(:amount AS NUMERIC), CAST(:currency AS VARCHAR),
+                    CAST(:fee AS NUMERIC), CAST(:description AS VARCHAR),
+                    CAST(:idempotencyKey AS VARCHAR), '{}',
+                    stamp.at, CAST(:now AS TIMESTAMP), stamp.at, 0
+                FROM stamp
+                RETURNING id
+            ),
+            ledger AS (
+                INSERT INTO ledger_entries (id, transaction_id, wallet_id, entry_type, amount,
+                    currency, balance_after, reference, description, created_at, updated_at,
+                    version)
+                SELECT CAST(:debitEntryId AS UUID), txn.id, CAST(:sourceWalletId AS UUID),
+                    'DEBIT', CAST(:totalAmount AS NUMERIC), CAST(:currency AS VARCHAR),
+                    CASE WHEN CAST(:sourceStriped AS BOOLEAN) THEN NULL ELSE debit.balance END,
+                    CAST(:transactionRef AS VARCHAR),
+                    CAST(:debitDescription AS VARCHAR), stamp.at, stamp.at, 0
+                FROM txn, debit, stamp
+                UNION ALL
+                SELECT CAST(:creditEntryId AS UUID), txn.id, CAST(:destinationWalletId AS UUID),
+                    'CREDIT', CAST(:amount AS NUMERIC), CAST(:currency AS VARCHAR),
+                    CASE WHEN CAST(:destinationStriped AS BOOLEAN) THEN NULL ELSE credit.balance END,
+                    CAST(:transactionRef AS VARCHAR),
+                    CAST(:creditDescription AS VARCHAR), stamp.at, stamp.at, 0
+                FROM txn, credit, stamp
+                RETURNING id
+            )
+            SELECT (SELECT balance FROM debit) AS source_balance,
+                   (SELECT balance FROM credit) AS destination_balance,
+                   (SELECT version FROM debit) AS source_version,
+                   (SELECT version FROM credit) AS destination_version,
+                   (SELECT COUNT(*) FROM ledger) AS ledger_entries,
+                   (SELECT at FROM stamp) AS completed_at,
+                   EXISTS (SELECT 1 FROM locked WHERE id = CAST(:sourceWalletId AS UUID)) AS source_found,
+                   EXISTS (SELECT 1 FROM locked WHERE id = CAST(:destinationWalletId AS UUID)) AS destination_found
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionIdGenerator idGenerator;
+    private final WalletService walletService;
+    private final WalletBalanceCache walletBalanceCache;
+
+    @Override
+    public TransferOutcome execute(TransferRequest request, WalletMetadata sourceWallet,
+                                   WalletMetadata destinationWallet, BigDecimal fee) {
+        BigDecimal totalAmount = request.getAmount().add(fee);
+        LocalDateTime now = LocalDateTime.now();
+        UUID transactionId = EntityIds.newId();
+        String transactionRef = idGenerator.generateTransactionRef();
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("sourceWalletId", sourceWallet.id())
+                .addValue("destinationWalletId", destinationWallet.id())
+                // Striped wallets record no running balance, see WalletMetadata.balanceAfter
+                .addValue("sourceStriped", sourceWallet.stripeCount() > 0)
+                .addValue("destinationStriped", destinationWallet.stripeCount() > 0)
+                .addValue("amount", request.getAmount())
+                .addValue("fee", fee)
+                .addValue("totalAmount", totalAmount)
+                .addValue("currency", request.getCurrency().name())
+                .addValue("now", now)
+                .addValue("transactionId", transactionId)
+                .addValue("transactionRef", transactionRef)
+                .addValue("transactionType", TransactionType.TRANSFER.name())
+                .addValue("status", TransactionStatus.COMPLETED.name())
+                .addValue("description", request.getDescription())
+                .addValue("idempotencyKey", request.getIdempotencyKey())
+                .addValue("debitEntryId", EntityIds.newId())
+                .addValue("creditEntryId", EntityIds.newId())
+                .addValue("debitDescription", "Transfer to " + destinationWallet.walletNumber())
+                .addValue("creditDescription", "Transfer from " + sourceWallet.walletNumber());
+
+        TransferRow row = applyTransfer(params);
+
+        // Fewer than two locked rows means a wallet is gone and nothing was written
+        if (!row.sourceFound()) {
+            throw new WalletNotFoundException("Wallet not found with id: " + sourceWallet.id());
+        }
+        if (!row.destinationFound()) {
+            throw new WalletNotFoundException(
+                    "Wallet not found with id: " + destinationWallet.id());
+        }
+
+        // The statement only debits the wallets row; a striped source that is short
+        // there gets its stripes folded in and the (so far write-free) statement rerun.
+        if (row.sourceBalance() == null && sourceWallet.stripeCount() > 0
+                && walletService.consolidateStripes(sourceWallet.id())) {
+            row = applyTransfer(params);
+        }
+
+        // Nothing was written when the debit did not apply; a missing credit means
+        // the debit did apply, so the exception must roll the transaction back.
+        if (row.sourceBalance() == null) {
+            throw new InsufficientFundsException("Insufficient funds");
+        }
+        if (row.destinationBalance() == null || row.ledgerEntries() != 2) {
+            throw new WalletNotFoundException(
+                    "Wallet not found with id: " + destinationWallet.id());
+        }
+
+        walletBalanceCache.invalidateAfterCommit(sourceWallet.id(), row.sourceVersion());
+        walletBalanceCache.invalidateAfterCommit(destinationWallet.id(), row.destinationVersion());
+
+        log.debug("Transfer applied in a single statement: {}", transactionRef);
+
+        TransactionResponse response = TransactionResponse.builder()
+                .id(transactionId)
+                .transactionRef(transactionRef)
+                .sourceWalletNumber(sourceWallet.walletNumber())
+                .destinationWalletNumber(destinationWallet.walletNumber())
+                .transactionType(TransactionType.TRANSFER)
+                .status(TransactionStatus.COMPLETED)
+                .amount(request.getAmount())
+                .currency(request.getCurrency())
+                .fee(fee)
+                .description(request.getDescription())
+                .metadata(new HashMap<>())
+                .completedAt(row.completedAt())
+                .createdAt(now)
+                .build();
+
+        return new TransferOutcome(response, sourceWallet.id(), destinationWallet.id(),
+                sourceWallet.balanceAfter(row.sourceBalance()),
+                destinationWallet.balanceAfter(row.destinationBalance()));
+    }
+
+    private TransferRow applyTransfer(MapSqlParameterSource params) {
+        return jdbcTemplate.queryForObject(TRANSFER_SQL, params, (rs, rowNum) ->
+                new TransferRow(
+                        rs.getBigDecimal("source_balance"),
+                        rs.getBigDecimal("destination_balance"),
+                        rs.getLong("source_version"),
+                        rs.getLong("destination_version"),
+                        rs.getLong("ledger_entries"),
+                        rs.getObject("completed_at", LocalDateTime.class),
+                        rs.getBoolean("source_found"),
+                        rs.getBoolean("destination_found")));
+    }
+
+    private record TransferRow(
+            BigDecimal sourceBalance,
+            BigDecimal destinationBalance,
+            long sourceVersion,
+            long destinationVersion,
+            long ledgerEntries,
+            LocalDateTime completedAt,
+            boolean sourceFound,
+            boolean destinationFound
+    ) {}
+}
@@ -0,0 +1,106 @@
+package com.fintech.digiwallet.service.transfer;
+
+import com.fintech.digiwallet.domain.entity.Transaction;
+import com.fintech.digiwallet.domain.enums.TransactionStatus;
+import com.fintech.digiwallet.domain.enums.TransactionType;
+import com.fintech.digiwallet.domain.projection.WalletBalance;
+import com.fintech.digiwallet.domain.projection.WalletMetadata;
+import com.fintech.digiwallet.domain.repository.TransactionRepository;
+import com.fintech.digiwallet.dto.mapper.TransactionMapper;
+import com.fintech.digiwallet.dto.request.TransferRequest;
+import com.fintech.digiwallet.service.LedgerService;
+import com.fintech.digiwallet.service.TransactionIdGenerator;
+import com.fintech.digiwallet.service.WalletService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(
+        name = "app.transaction.transfer.executor",
+        havingValue = "jpa",
+        matchIfMissing = true
+)
+public class JpaTransferExecutor implements TransferExecutor {
+
+    private final TransactionRepository transactionRepository;
+    private final WalletService walletService;
+    private final LedgerService ledgerService;
+    private final TransactionMapper transactionMapper;
+    private final TransactionIdGenerator idGenerator;
+    private final TransferLockingStrategy transferLockingStrategy;
+
+    @Override
+    public TransferOutcome execute(TransferRequest request, WalletMetadata sourceWallet,
+                                   WalletMetadata destinationWallet, BigDecimal fee) {
+        BigDecimal totalAmount = request.getAmount().add(fee);
+
+        // A striped destination is credited on a stripe row, never its wallets row,
+        // so locking it up front would only re-serialise its incoming transfers.
+        if (destinationWallet.stripeCount() > 0) {
+            transferLockingStrategy.lock(sourceWallet.id());
+        } else {
+            transferLockingStrategy.lock(sourceWallet.id(), destinationWallet.id());
+        }
+
+        Transaction transaction = Transaction.builder()
+                .transactionRef(idGenerator.generateTransactionRef())
+                .sourceWallet(walletService.getWalletReference(sourceWallet.id()))
+                .destinationWallet(walletService.getWalletReference(destinationWallet.id()))
+                .transactionType(TransactionType.TRANSFER)
+                .status(TransactionStatus.PROCESSING)
+                .amount(request.getAmount())
+                .currency(request.getCurrency())
+                .fee(fee)
+                .description(request.getDescription())
+                .idempotencyKey(request.getIdempotencyKey())
+                .metadata(new HashMap<>())
+                .build();
+
+        // Row locks taken by the balance updates follow the same global order as
+        // the explicit locks, so opposite transfers between two wallets cannot deadlock.
+        WalletBalance sourceBalance;
+        WalletBalance destinationBalance;
+        if (transferLockingStrategy.locksBefore(sourceWallet.id(), destinationWallet.id())) {
+            sourceBalance = walletService.debitFunds(sourceWallet.id(), totalAmount);
+            destinationBalance = walletService.creditFunds(
+                    destinationWallet, request.getAmount(), transaction.getTransactionRef());
+        } else {
+            destinationBalance = walletService.creditFunds(
+                    destinationWallet, request.getAmount(), transaction.getTransactionRef());
+            sourceBalance = walletService.debitFunds(sourceWallet.id(), totalAmount);
+        }
+
+        // Persisted only once the balances moved: a transfer rejected above leaves
+        // nothing in the persistence context, so group commit can roll it back to
+        // its savepoint without replaying the rest of the batch
+        transaction = transactionRepository.save(transaction);
+
+        BigDecimal sourceBalanceAfter = sourceWallet.balanceAfter(sourceBalance.balance());
+        BigDecimal destinationBalanceAfter = destinationWallet.balanceAfter(destinationBalance.balance());
+        ledgerService.createTransferLedgerEntries(
+                transaction, sourceWallet, destinationWallet,
+                sourceBalanceAfter, destinationBalanceAfter);
+
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setCompletedAt(LocalDateTime.now());
+        transaction = transactionRepository.save(transaction);
+
+        log.debug("Transfer applied through JPA: {}", transaction.getTransactionRef());
+
+        return new TransferOutcome(
+                transactionMapper.toResponse(transaction,
+                        sourceWallet.walletNumber(), destinationWallet.walletNumber()),
+                sourceWallet.id(),
+                destinationWallet.id(),
+                sourceBalanceAfter,
+                destinationBalanceAfter);
+    }
+}
@@ -0,0 +1,13 @@
+package com.fintech.digiwallet.service.transfer;
+
+import com.fintech.digiwallet.domain.projection.WalletMetadata;
+import com.fintech.digiwallet.dto.request.TransferRequest;
+
+import java.math.BigDecimal;
+
+// Applies an already validated transfer: debit, credit, ledger double entry and
+// the transaction record. Selected with app.transaction.transfer.executor.
+public interface TransferExecutor {
+    TransferOutcome execute(TransferRequest request, WalletMetadata sourceWallet,
+                            WalletMetadata destinationWallet, BigDecimal fee);
+}
@@ -0,0 +1,314 @@
+package com.fintech.digiwallet.service.transfer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Opt-in group commit: transfers arriving within a short window are applied by a
+// single writer thread in one database transaction, so the whole batch pays for
+// one commit and its inserts are flushed as JDBC batches. Each transfer runs inside
+// its own savepoint, so a failing transfer is rolled back alone, together with its
+// after-commit hooks, and only its caller sees the error. Transfers rejected by the
+// balance checks persist nothing before failing; when a failed transfer did leave
+// unflushed entities, or the batch flush fails, the batch is replayed flushing
+// transfer by transfer.
+//
+// Wallets are owned by one of N shards (by source wallet number), each with its own
+// lock-free queue and writer thread. All transfers out of a wallet are therefore
+// applied by one thread, in arrival order, and queue in memory instead of on its row
+// lock. Only the source picks the shard, and a batch holds its row locks until it
+// commits: credits to one destination from different shards still serialize on that
+// row and can deadlock, which the transfer retry policy absorbs.
+@Component
+@Slf4j
+public class TransferGroupCommitter {
+
+    private final TransactionTemplate batchTemplate;
+    private final TransactionTemplate savepointTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.transaction.transfer.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.transaction.transfer.group-commit.shards:1}")
+    private int shardCount;
+
+    @Value("${app.transaction.transfer.group-commit.window-ms:5}")
+    private long windowMs;
+
+    @Value("${app.transaction.transfer.group-commit.max-batch-size:20}")
+    private int maxBatchSize;
+
+    @Value("${app.transaction.transfer.group-commit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private Shard[] shards;
+    private volatile boolean running;
+
+    public TransferGroupCommitter(PlatformTransactionManager transactionManager) {
+        this.batchTemplate = new TransactionTemplate(transactionManager);
+        this.savepointTemplate = new TransactionTemplate(transactionManager);
+        this.savepointTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+
+        running = true;
+        shards = new Shard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i);
+            shards[i].thread.start();
+        }
+
+        log.info("Transfer group commit enabled: shards={}, window={}ms, maxBatchSize={}",
+                shards.length, windowMs, maxBatchSize);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (shards == null) {
+            return;
+        }
+        running = false;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : shards) {
+            shard.thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Blocks the calling thread until the batch containing this transfer has committed
+    public <T> T submit(String ownerKey, Supplier<T> transfer) {
+        if (!running) {
+            throw new IllegalStateException("Transfer group commit is not running");
+        }
+
+        PendingTransfer<T> pending = new PendingTransfer<>(transfer, new CompletableFuture<>());
+        shardFor(ownerKey).offer(pending);
+
+        try {
+            return pending.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Shard shardFor(String ownerKey) {
+        return shards[Math.floorMod(ownerKey.hashCode(), shards.length)];
+    }
+
+    private void commitBatch(List<PendingTransfer<?>> batch) {
+        List<Runnable> completions;
+        try {
+            completions = batchTemplate.execute(status -> applyBatch(batch, batch.size() == 1));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failBatch(batch, e);
+                return;
+            }
+            // Nothing of the batch was persisted. Replay it flushing inside every
+            // savepoint, so only the offending transfer fails.
+            log.debug("Replaying transfer batch of {} transfer by transfer: {}", batch.size(), e.getMessage());
+            try {
+                completions = batchTemplate.execute(status -> applyBatch(batch, true));
+            } catch (RuntimeException replayFailure) {
+                failBatch(batch, replayFailure);
+                return;
+            }
+        }
+
+        // Callers are only released once the batch is durable
+        completions.forEach(Runnable::run);
+        log.debug("Committed transfer batch of {}", batch.size());
+    }
+
+    private List<Runnable> applyBatch(List<PendingTransfer<?>> batch, boolean flushEach) {
+        List<Runnable> completions = new ArrayList<>(batch.size());
+        for (PendingTransfer<?> pending : batch) {
+            completions.add(applyInSavepoint(pending, flushEach));
+        }
+        // One flush for the whole batch, so its inserts go out as JDBC batches
+        entityManager.flush();
+        return completions;
+    }
+
+    private void failBatch(List<PendingTransfer<?>> batch, RuntimeException e) {
+        log.warn("Transfer batch of {} failed to commit: {}", batch.size(), e.getMessage());
+        batch.forEach(pending -> pending.result().completeExceptionally(e));
+    }
+
+    // Results are only handed out after the commit: a replayed batch applies every
+    // transfer again, so nothing may be completed while the batch can still fail
+    private <T> Runnable applyInSavepoint(PendingTransfer<T> pending, boolean flush) {
+        int managedBefore = persistenceContext().getNumberOfManagedEntities();
+        List<TransactionSynchronization> synchronizations =
+                TransactionSynchronizationManager.getSynchronizations();
+        try {
+            T value = savepointTemplate.execute(status -> {
+                T result = pending.transfer().get();
+                if (flush) {
+                    // Surface constraint violations while still inside this savepoint
+                    entityManager.flush();
+                }
+                return result;
+            });
+            return () -> pending.result().complete(value);
+        } catch (RuntimeException e) {
+            // Rolled back to the savepoint. Unflushed entities of the failed transfer
+            // cannot be told apart from those of earlier transfers, so without per
+            // transfer flushes the batch is rolled back and replayed.
+            if (!flush && persistenceContext().getNumberOfManagedEntities() > managedBefore) {
+                throw new ReplayBatch(e);
+            }
+            if (flush) {
+                // Earlier transfers are flushed; drop whatever the failed one left
+                entityManager.clear();
+            }
+            dropSynchronizationsAddedSince(synchronizations);
+            return () -> pending.result().completeExceptionally(e);
+        }
+    }
+
+    // After-commit hooks of a transfer rolled back to its savepoint must not run.
+    // Synchronizations cannot be unregistered one by one, so the list is rebuilt
+    // without them, the way a suspended transaction's list is restored.
+    private static void dropSynchronizationsAddedSince(List<TransactionSynchronization> kept) {
+        List<TransactionSynchronization> current = TransactionSynchronizationManager.getSynchronizations();
+        if (current.size() == kept.size()) {
+            return;
+        }
+        Set<TransactionSynchronization> keep = Collections.newSetFromMap(new IdentityHashMap<>());
+        keep.addAll(kept);
+
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        for (TransactionSynchronization synchronization : current) {
+            if (keep.contains(synchronization)) {
+                TransactionSynchronizationManager.registerSynchronization(synchronization);
+            } else {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        }
+    }
+
+    private org.hibernate.engine.spi.PersistenceContext persistenceContext() {
+        return entityManager.unwrap(SessionImplementor.class).getPersistenceContextInternal();
+    }
+
+    // One writer thread draining a multi-producer queue. Producers never block:
+    // they enqueue with a CAS and unpark the writer, which parks when idle.
+    private final class Shard {
+
+        private final Queue<PendingTransfer<?>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final Thread thread;
+
+        private Shard(int index) {
+            this.thread = new Thread(this::run, "transfer-group-commit-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void offer(PendingTransfer<?> pending) {
+            if (size.incrementAndGet() > queueCapacity) {
+                size.decrementAndGet();
+                throw new IllegalStateException("Transfer queue is full, try again later");
+            }
+            queue.offer(pending);
+            LockSupport.unpark(thread);
+        }
+
+        private PendingTransfer<?> poll() {
+            PendingTransfer<?> pending = queue.poll();
+            if (pending != null) {
+                size.decrementAndGet();
+            }
+            return pending;
+        }
+
+        private void run() {
+            while (running || !queue.isEmpty()) {
+                try {
+                    List<PendingTransfer<?>> batch = collectBatch();
+                    if (!batch.isEmpty()) {
+                        commitBatch(batch);
+                    }
+                } catch (Throwable t) {
+                    log.error("Transfer group commit shard error", t);
+                }
+            }
+        }
+
+        private List<PendingTransfer<?>> collectBatch() {
+            List<PendingTransfer<?>> batch = new ArrayList<>(maxBatchSize);
+
+            PendingTransfer<?> first = poll();
+            if (first == null) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+                return batch;
+            }
+            batch.add(first);
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+            while (batch.size() < maxBatchSize) {
+                PendingTransfer<?> next = poll();
+                if (next != null) {
+                    batch.add(next);
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !running) {
+                    break;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+            return batch;
+        }
+    }
+
+    private static final class ReplayBatch extends RuntimeException {
+
+        private ReplayBatch(RuntimeException cause) {
+            super(cause.getMessage(), cause, false, false);
+        }
+    }
+
+    private record PendingTransfer<T>(Supplier<T> transfer, CompletableFuture<T> result) {}
+}
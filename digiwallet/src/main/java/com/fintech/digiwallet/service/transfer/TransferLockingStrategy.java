@@ -0,0 +1,125 @@
+package com.fintech.digiwallet.service.transfer;
+
+import com.fintech.digiwallet.domain.repository.WalletBalanceRepository;
+import com.fintech.digiwallet.exception.WalletNotFoundException;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PessimisticLockException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransferLockingStrategy {
+
+    public enum LockMode {
+        PESSIMISTIC, // SELECT ... FOR UPDATE on every wallet before mutating
+        OPTIMISTIC   // no up-front locks, conflicts are resolved by retry
+    }
+
+    // deadlock_detected, serialization_failure, lock_not_available
+    private static final Set<String> RETRYABLE_SQL_STATES = Set.of("40P01", "40001", "55P03");
+
+    // Unsigned byte order, the same order PostgreSQL uses for ORDER BY on a uuid
+    // column, so Java-side and in-statement locking agree (UUID.compareTo is signed).
+    public static final Comparator<UUID> LOCK_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private final WalletBalanceRepository walletBalanceRepository;
+
+    @Value("${app.transaction.transfer.lock-mode:PESSIMISTIC}")
+    private LockMode lockMode;
+
+    @Value("${app.transaction.transfer.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.transaction.transfer.retry-backoff-ms:25}")
+    private long retryBackoffMs;
+
+    @Value("${app.transaction.transfer.max-retry-backoff-ms:250}")
+    private long maxRetryBackoffMs;
+
+    // Locks the wallets in a global order (by UUID) so that two transfers touching
+    // the same wallets always wait on each other in the same direction.
+    public void lock(UUID... walletIds) {
+        if (lockMode != LockMode.PESSIMISTIC) {
+            return;
+        }
+
+        UUID[] ordered = walletIds.clone();
+        Arrays.sort(ordered, LOCK_ORDER);
+
+        for (UUID walletId : ordered) {
+            if (!walletBalanceRepository.lockForUpdate(walletId)) {
+                throw new WalletNotFoundException("Wallet not found with id: " + walletId);
+            }
+        }
+    }
+
+    // True when the first wallet comes first in the global lock order
+    public boolean locksBefore(UUID first, UUID second) {
+        return LOCK_ORDER.compare(first, second) < 0;
+    }
+
+    // Runs the attempt up to max-attempts times while it fails with a transient
+    // locking error, sleeping with full jitter between attempts.
+    public <T> T executeWithRetry(Supplier<T> attempt) {
+        for (int attemptNumber = 1; ; attemptNumber++) {
+            try {
+                return attempt.get();
+            } catch (RuntimeException e) {
+                if (attemptNumber >= maxAttempts || !isRetryable(e)) {
+                    throw e;
+                }
+
+                long backoff = backoffMillis(attemptNumber);
+                log.warn("Transfer attempt {} hit a lock conflict, retrying in {} ms: {}",
+                        attemptNumber, backoff, e.getMessage());
+                sleep(backoff, e);
+            }
+        }
+    }
+
+    public boolean isRetryable(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof ConcurrencyFailureException
+                    || t instanceof OptimisticLockException
+                    || t instanceof PessimisticLockException
+                    || t instanceof LockTimeoutException) {
+                return true;
+            }
+            if (t instanceof SQLException sqlException
+                    && RETRYABLE_SQL_STATES.contains(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long backoffMillis(int attemptNumber) {
+        long ceiling = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(attemptNumber - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void sleep(long millis, RuntimeException cause) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
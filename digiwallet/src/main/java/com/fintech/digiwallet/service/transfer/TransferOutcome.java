@@ -0,0 +1,16 @@
+package com.fintech.digiwallet.service.transfer;
+
+import com.fintech.digiwallet.dto.response.TransactionResponse;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+// Result of a committed transfer, carrying what is needed to publish its event
+// and to record it in the wallet activity read model
+public record TransferOutcome(
+        TransactionResponse response,
+        UUID sourceWalletId,
+        UUID destinationWalletId,
+        BigDecimal sourceBalanceAfter,
+        BigDecimal destinationBalanceAfter
+) {}
@@ -0,0 +1,171 @@
+package com.fintech.digiwallet.service.wallet;
+
+import com.fintech.digiwallet.domain.projection.WalletBalance;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+// Redis cache of wallet balances keyed by wallet id, stamped with the wallets.version
+// the values were read at.
+//
+// Writers never put balances: after commit they leave a tombstone carrying the new
+// version, and readers repopulate from the database. Both go through Lua scripts that
+// refuse to replace an entry with an older version, so a reader that loaded before a
+// commit cannot overwrite it. Group commit drops the tombstones of transfers rolled
+// back to their savepoint; one that got through could only cause misses anyway.
+//
+// Entry format: "<version>|" (tombstone) or "<version>|<cachedAtMillis>|<balance>|<available>|<pending>"
+@Component
+@Slf4j
+public class WalletBalanceCache {
+
+    private static final String KEY_PREFIX = "wallet-balance:";
+
+    // ARGV: version, ttl seconds. Replaces anything older than the committed version.
+    private static final RedisScript<Long> INVALIDATE_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[1]) " +
+                    "if current and tonumber(string.match(current, '^(%d+)')) >= tonumber(ARGV[1]) then " +
+                    "return 0 end " +
+                    "redis.call('SET', KEYS[1], ARGV[1] .. '|', 'EX', ARGV[2]) " +
+                    "return 1",
+            Long.class);
+
+    // ARGV: version, entry, ttl seconds. Fills a miss, an older entry, or the tombstone
+    // of exactly this version; never replaces an equal or newer value.
+    private static final RedisScript<Long> POPULATE_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[1]) " +
+                    "if current then " +
+                    "local version = tonumber(string.match(current, '^(%d+)')) " +
+                    "local incoming = tonumber(ARGV[1]) " +
+                    "if version > incoming or (version == incoming and " +
+                    "string.len(current) > string.len(ARGV[1]) + 1) then return 0 end " +
+                    "end " +
+                    "redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3]) " +
+                    "return 1",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter rejectedWrites;
+    private final DistributionSummary entryAge;
+
+    @Value("${app.wallet.balance-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.wallet.balance-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    public WalletBalanceCache(RedisTemplate<String, String> redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.hits = Counter.builder("wallet.balance.cache")
+                .tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("wallet.balance.cache")
+                .tag("result", "miss").register(meterRegistry);
+        this.rejectedWrites = Counter.builder("wallet.balance.cache.rejected")
+                .description("Populations refused because a newer version was already cached")
+                .register(meterRegistry);
+        this.entryAge = DistributionSummary.builder("wallet.balance.cache.age")
+                .description("Age of cached balances when served")
+                .baseUnit("milliseconds")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public WalletBalance get(UUID walletId, Supplier<WalletBalance> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        String key = KEY_PREFIX + walletId;
+        try {
+            String entry = redisTemplate.opsForValue().get(key);
+            WalletBalance cached = entry != null ? decode(walletId, entry) : null;
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        } catch (RuntimeException e) {
+            log.debug("Balance cache read failed for {}: {}", walletId, e.getMessage());
+        }
+
+        misses.increment();
+        WalletBalance balance = loader.get();
+        populate(key, balance);
+        return balance;
+    }
+
+    // Registers the invalidation to run once the surrounding transaction commits
+    public void invalidateAfterCommit(UUID walletId, long version) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(walletId, version);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(walletId, version);
+            }
+        });
+    }
+
+    private void invalidate(UUID walletId, long version) {
+        try {
+            redisTemplate.execute(INVALIDATE_SCRIPT, List.of(KEY_PREFIX + walletId),
+                    Long.toString(version), Long.toString(ttlSeconds));
+        } catch (RuntimeException e) {
+            // A missed invalidation leaves the old value until its TTL runs out
+            log.warn("Balance cache invalidation failed for {}: {}", walletId, e.getMessage());
+        }
+    }
+
+    private void populate(String key, WalletBalance balance) {
+        try {
+            Long written = redisTemplate.execute(POPULATE_SCRIPT, List.of(key),
+                    Long.toString(balance.version()), encode(balance), Long.toString(ttlSeconds));
+            if (written != null && written == 0) {
+                rejectedWrites.increment();
+            }
+        } catch (RuntimeException e) {
+            log.debug("Balance cache write failed for {}: {}", balance.walletId(), e.getMessage());
+        }
+    }
+
+    private static String encode(WalletBalance balance) {
+        return balance.version() + "|" + System.currentTimeMillis() + "|"
+                + balance.balance().toPlainString() + "|"
+                + balance.availableBalance().toPlainString() + "|"
+                + balance.pendingBalance().toPlainString();
+    }
+
+    // Null for tombstones
+    private WalletBalance decode(UUID walletId, String entry) {
+        String[] parts = entry.split("\\|");
+        if (parts.length < 5) {
+            return null;
+        }
+        entryAge.record(System.currentTimeMillis() - Long.parseLong(parts[1]));
+        return new WalletBalance(
+                walletId,
+                new BigDecimal(parts[2]),
+                new BigDecimal(parts[3]),
+                new BigDecimal(parts[4]),
+                Long.parseLong(parts[0]));
+    }
+}
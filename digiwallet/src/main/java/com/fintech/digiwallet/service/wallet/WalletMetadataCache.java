@@ -0,0 +1,154 @@
+package com.fintech.digiwallet.service.wallet;
+
+import com.fintech.digiwallet.domain.enums.Currency;
+import com.fintech.digiwallet.domain.projection.WalletMetadata;
+import com.fintech.digiwallet.domain.projection.WalletSettings;
+import com.fintech.digiwallet.domain.repository.WalletRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+// Cache of wallet metadata by wallet number. The fields that never change (id, user,
+// currency) sit in a local Caffeine cache in front of Redis, in front of the
+// database. The settings that can change (active, stripe count, time zone) are only
+// cached locally, for a short TTL. Balances are never cached here.
+//
+// Evictions are broadcast on a Redis channel so every node drops its local settings.
+// Settings are loaded through Caffeine's atomic get, so an eviction that arrives
+// while a load is in flight removes the loaded value instead of being overtaken by
+// it. The settings TTL bounds staleness if a broadcast is lost, or after a change
+// made outside the application, such as a stripe count update.
+// Redis being unavailable only costs the database lookup it would have saved.
+@Component
+@Slf4j
+public class WalletMetadataCache {
+
+    private static final String KEY_PREFIX = "wallet-metadata:";
+    private static final String INVALIDATION_CHANNEL = "wallet-metadata-invalidation";
+
+    private final WalletRepository walletRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Value("${app.wallet.metadata-cache.local-ttl-seconds:60}")
+    private long localTtlSeconds;
+
+    @Value("${app.wallet.metadata-cache.local-max-size:100000}")
+    private long localMaxSize;
+
+    @Value("${app.wallet.metadata-cache.redis-ttl-minutes:60}")
+    private long redisTtlMinutes;
+
+    @Value("${app.wallet.metadata-cache.settings-ttl-seconds:30}")
+    private long settingsTtlSeconds;
+
+    private Cache<String, Identity> identities;
+    private Cache<String, WalletSettings> settings;
+
+    public WalletMetadataCache(WalletRepository walletRepository,
+                               RedisTemplate<String, String> redisTemplate,
+                               RedisMessageListenerContainer listenerContainer) {
+        this.walletRepository = walletRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    void init() {
+        identities = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+        settings = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(settingsTtlSeconds))
+                .build();
+
+        listenerContainer.addMessageListener(
+                (message, pattern) -> settings.invalidate(
+                        new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public Optional<WalletMetadata> get(String walletNumber) {
+        Identity identity = identities.getIfPresent(walletNumber);
+        if (identity == null) {
+            identity = readRedis(walletNumber);
+        }
+        if (identity == null) {
+            // Only the identity is kept from this row; settings go through the atomic load below
+            WalletMetadata metadata = walletRepository.findMetadataByWalletNumber(walletNumber)
+                    .orElse(null);
+            if (metadata == null) {
+                return Optional.empty();
+            }
+            identity = new Identity(metadata.id(), metadata.userId(), metadata.currency());
+            writeRedis(walletNumber, identity);
+        }
+        identities.put(walletNumber, identity);
+
+        WalletSettings current = settings.get(walletNumber, number ->
+                walletRepository.findSettingsByWalletNumber(number).orElse(null));
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new WalletMetadata(identity.id(), walletNumber, identity.userId(),
+                identity.currency(), current));
+    }
+
+    // Call after the change commits
+    public void evict(String walletNumber) {
+        settings.invalidate(walletNumber);
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, walletNumber);
+        } catch (RuntimeException e) {
+            log.warn("Failed to broadcast wallet metadata eviction of {}: {}",
+                    walletNumber, e.getMessage());
+        }
+    }
+
+    private Identity readRedis(String walletNumber) {
+        try {
+            String value = redisTemplate.opsForValue().get(KEY_PREFIX + walletNumber);
+            return value != null ? decode(value) : null;
+        } catch (RuntimeException e) {
+            log.debug("Wallet metadata Redis read failed for {}: {}", walletNumber, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(String walletNumber, Identity identity) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + walletNumber,
+                    encode(identity), Duration.ofMinutes(redisTtlMinutes));
+        } catch (RuntimeException e) {
+            log.debug("Wallet metadata Redis write failed for {}: {}", walletNumber, e.getMessage());
+        }
+    }
+
+    // id|userId|currency; entries written by earlier versions carry more fields, ignored
+    private static String encode(Identity identity) {
+        return identity.id() + "|" + identity.userId() + "|" + identity.currency();
+    }
+
+    private static Identity decode(String value) {
+        String[] parts = value.split("\\|");
+        return new Identity(
+                UUID.fromString(parts[0]),
+                UUID.fromString(parts[1]),
+                Currency.valueOf(parts[2]));
+    }
+
+    private record Identity(UUID id, UUID userId, Currency currency) {}
+}
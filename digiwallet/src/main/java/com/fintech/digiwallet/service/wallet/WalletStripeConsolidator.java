@@ -0,0 +1,55 @@
+package com.fintech.digiwallet.service.wallet;
+
+import com.fintech.digiwallet.domain.repository.WalletBalanceRepository;
+import com.fintech.digiwallet.service.WalletService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+// Periodically folds the stripes of hot wallets back into their wallets row, so
+// debits rarely need to consolidate inline and stripe sums stay small. Each wallet
+// is consolidated in its own short transaction to keep the row lock brief.
+@Component
+@Slf4j
+public class WalletStripeConsolidator {
+
+    private final WalletBalanceRepository walletBalanceRepository;
+    private final WalletService walletService;
+    private final TransactionTemplate transactionTemplate;
+
+    public WalletStripeConsolidator(WalletBalanceRepository walletBalanceRepository,
+                                    WalletService walletService,
+                                    PlatformTransactionManager transactionManager) {
+        this.walletBalanceRepository = walletBalanceRepository;
+        this.walletService = walletService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${app.wallet.striping.consolidation-interval-ms:30000}")
+    public void consolidate() {
+        List<UUID> walletIds = walletBalanceRepository.findWalletsWithStripeBalance();
+        int consolidated = 0;
+
+        for (UUID walletId : walletIds) {
+            try {
+                Boolean applied = transactionTemplate.execute(
+                        status -> walletService.consolidateStripes(walletId));
+                if (Boolean.TRUE.equals(applied)) {
+                    consolidated++;
+                }
+            } catch (RuntimeException e) {
+                // Lock conflicts with live transfers are expected; the next run picks it up
+                log.warn("Failed to consolidate stripes of wallet {}: {}", walletId, e.getMessage());
+            }
+        }
+
+        if (consolidated > 0) {
+            log.debug("Consolidated stripes of {} wallets", consolidated);
+        }
+    }
+}
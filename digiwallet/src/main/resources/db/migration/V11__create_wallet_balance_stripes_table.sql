@@ -0,0 +1,10 @@
+ALTER TABLE wallets ADD COLUMN stripe_count INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE wallet_balance_stripes(
+    wallet_id UUID NOT NULL REFERENCES wallets(id) ON DELETE CASCADE,
+    stripe INTEGER NOT NULL,
+    balance NUMERIC(19, 4) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (wallet_id, stripe),
+    CONSTRAINT check_stripe_balance_positive CHECK (balance >= 0)
+);
@@ -0,0 +1,7 @@
+-- Keyset pagination of a wallet's history seeks on (created_at, id) per wallet column;
+-- the composite indexes also cover the foreign key lookups of the ones they replace.
+CREATE INDEX idx_transaction_source_created ON transactions(source_wallet_id, created_at, id);
+CREATE INDEX idx_transaction_dest_created ON transactions(destination_wallet_id, created_at, id);
+
+DROP INDEX IF EXISTS idx_transaction_source;
+DROP INDEX IF EXISTS idx_transaction_dest;
@@ -0,0 +1,23 @@
+-- Read model for wallet history: one row per wallet per movement, written in the
+-- same transaction as the movement and rebuildable from ledger_entries.
+CREATE TABLE wallet_activity(
+    id UUID PRIMARY KEY,
+    wallet_id UUID NOT NULL,
+    wallet_number VARCHAR(20) NOT NULL,
+    transaction_id UUID NOT NULL,
+    transaction_ref VARCHAR(50) NOT NULL,
+    transaction_type VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    direction VARCHAR(10) NOT NULL,
+    amount NUMERIC(19, 4) NOT NULL,
+    fee NUMERIC(19, 4) NOT NULL DEFAULT 0,
+    currency VARCHAR(3) NOT NULL,
+    counterparty_wallet_number VARCHAR(20),
+    description VARCHAR(500),
+    balance_after NUMERIC(19, 4) NOT NULL,
+    completed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_wallet_activity_movement UNIQUE (wallet_id, transaction_id, direction)
+);
+
+CREATE INDEX idx_wallet_activity_wallet_created ON wallet_activity(wallet_id, created_at, transaction_id);
@@ -0,0 +1,18 @@
+-- Point-in-time balances: the latest checkpoint at or before T gives the balance
+-- and ledger position it had reached, and at most one seek on the ledger index
+-- from that position finds the last balance_after up to T.
+CREATE TABLE ledger_checkpoints(
+    wallet_id UUID NOT NULL REFERENCES wallets(id) ON DELETE CASCADE,
+    checkpoint_at TIMESTAMP NOT NULL,
+    balance NUMERIC(19, 4) NOT NULL,
+    last_entry_id UUID,
+    last_entry_at TIMESTAMP,
+    entry_count BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (wallet_id, checkpoint_at)
+);
+
+-- Covers the wallet foreign key lookups of the index it replaces
+CREATE INDEX idx_ledger_wallet_created ON ledger_entries(wallet_id, created_at, id);
+
+DROP INDEX IF EXISTS idx_ledger_wallet;
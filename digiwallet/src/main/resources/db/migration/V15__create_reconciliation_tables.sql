@@ -0,0 +1,26 @@
+CREATE TABLE reconciliation_runs(
+    id UUID PRIMARY KEY,
+    mode VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    previous_run_id UUID REFERENCES reconciliation_runs(id),
+    started_at TIMESTAMP NOT NULL,
+    finished_at TIMESTAMP,
+    wallets_checked BIGINT NOT NULL DEFAULT 0,
+    entries_scanned BIGINT NOT NULL DEFAULT 0,
+    drifted_wallets BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE INDEX idx_reconciliation_runs_started ON reconciliation_runs(started_at);
+
+-- One row per wallet whose balance differs from its ledger or whose balance_after
+-- chain is broken; transaction_ids holds the first transactions that break the chain
+CREATE TABLE reconciliation_drifts(
+    run_id UUID NOT NULL REFERENCES reconciliation_runs(id) ON DELETE CASCADE,
+    wallet_id UUID NOT NULL,
+    wallet_number VARCHAR(20) NOT NULL,
+    wallet_balance NUMERIC(19, 4) NOT NULL,
+    ledger_balance NUMERIC(19, 4) NOT NULL,
+    chain_breaks BIGINT NOT NULL,
+    transaction_ids UUID[] NOT NULL,
+    PRIMARY KEY (run_id, wallet_id)
+);
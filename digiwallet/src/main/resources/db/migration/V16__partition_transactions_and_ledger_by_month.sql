@@ -0,0 +1,160 @@
+-- Monthly range partitions on created_at for transactions and ledger_entries.
+--
+-- A primary key on a partitioned table must contain the partition key, so both
+-- become (id, created_at). For the same reason transactions(id) can no longer be
+-- referenced by foreign keys, and transaction_ref / idempotency_key can no longer
+-- be unique on the table itself: their uniqueness moves to transaction_keys,
+-- which a trigger fills on every insert.
+
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent_table TEXT, from_month DATE,
+                                                     month_count INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    month_start DATE;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0 .. month_count - 1 LOOP
+        month_start := (date_trunc('month', from_month) + make_interval(months => i))::DATE;
+        partition_name := parent_table || '_p' || to_char(month_start, 'YYYY_MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, parent_table, month_start,
+                           (month_start + INTERVAL '1 month')::DATE);
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE ledger_entries DROP CONSTRAINT IF EXISTS ledger_entries_transaction_id_fkey;
+ALTER TABLE split_payments DROP CONSTRAINT IF EXISTS split_payments_transaction_id_fkey;
+
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+ALTER TABLE ledger_entries RENAME TO ledger_entries_unpartitioned;
+
+CREATE TABLE transactions(
+    id UUID NOT NULL,
+    transaction_ref VARCHAR(50) NOT NULL,
+    source_wallet_id UUID REFERENCES wallets(id),
+    destination_wallet_id UUID REFERENCES wallets(id),
+    transaction_type VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    amount NUMERIC(19, 4) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    fee NUMERIC(19, 4) NOT NULL DEFAULT 0,
+    description VARCHAR(500),
+    idempotency_key VARCHAR(100) NOT NULL,
+    metadata VARCHAR(5000),
+    external_reference VARCHAR(100),
+    failure_reason VARCHAR(500),
+    completed_at TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id, created_at),
+    CONSTRAINT check_amount_positive CHECK (amount > 0)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE ledger_entries(
+    id UUID NOT NULL,
+    transaction_id UUID NOT NULL,
+    wallet_id UUID NOT NULL REFERENCES wallets(id) ON DELETE CASCADE,
+    entry_type VARCHAR(10) NOT NULL,
+    amount NUMERIC(19, 4) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    balance_after NUMERIC(19, 4) NOT NULL,
+    reference VARCHAR(100) NOT NULL,
+    description VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (id, created_at),
+    CONSTRAINT check_ledger_amount_positive CHECK (amount > 0)
+) PARTITION BY RANGE (created_at);
+
+-- Catches rows outside the created months; maintenance keeps it empty
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+CREATE TABLE ledger_entries_default PARTITION OF ledger_entries DEFAULT;
+
+CREATE TABLE transaction_keys(
+    transaction_id UUID PRIMARY KEY,
+    transaction_ref VARCHAR(50) NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_transaction_keys_ref UNIQUE (transaction_ref),
+    CONSTRAINT uk_transaction_keys_idempotency UNIQUE (idempotency_key)
+);
+
+CREATE INDEX idx_transaction_keys_created ON transaction_keys(created_at);
+
+CREATE OR REPLACE FUNCTION register_transaction_keys()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO transaction_keys (transaction_id, transaction_ref, idempotency_key, created_at)
+    VALUES (NEW.id, NEW.transaction_ref, NEW.idempotency_key, NEW.created_at);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_transaction_keys
+    AFTER INSERT ON transactions
+    FOR EACH ROW EXECUTE FUNCTION register_transaction_keys();
+
+-- Partitions from the oldest existing row up to three months ahead
+DO $$
+DECLARE
+    first_month DATE;
+    month_count INTEGER;
+BEGIN
+    first_month := date_trunc('month', LEAST(
+        (SELECT MIN(created_at) FROM transactions_unpartitioned),
+        (SELECT MIN(created_at) FROM ledger_entries_unpartitioned),
+        CURRENT_TIMESTAMP))::DATE;
+    month_count := (EXTRACT(YEAR FROM age(date_trunc('month', CURRENT_TIMESTAMP), first_month)) * 12
+        + EXTRACT(MONTH FROM age(date_trunc('month', CURRENT_TIMESTAMP), first_month)))::INTEGER + 4;
+
+    PERFORM create_monthly_partitions('transactions', first_month, month_count);
+    PERFORM create_monthly_partitions('ledger_entries', first_month, month_count);
+END;
+$$;
+
+INSERT INTO transactions (id, transaction_ref, source_wallet_id, destination_wallet_id,
+    transaction_type, status, amount, currency, fee, description, idempotency_key, metadata,
+    external_reference, failure_reason, completed_at, created_at, updated_at, version)
+SELECT id, transaction_ref, source_wallet_id, destination_wallet_id,
+    transaction_type, status, amount, currency, fee, description, idempotency_key, metadata,
+    external_reference, failure_reason, completed_at, created_at, updated_at, version
+FROM transactions_unpartitioned;
+
+INSERT INTO ledger_entries (id, transaction_id, wallet_id, entry_type, amount, currency,
+    balance_after, reference, description, created_at, updated_at, version)
+SELECT id, transaction_id, wallet_id, entry_type, amount, currency,
+    balance_after, reference, description, created_at, updated_at, version
+FROM ledger_entries_unpartitioned;
+
+DROP TABLE ledger_entries_unpartitioned;
+DROP TABLE transactions_unpartitioned;
+
+-- Defined on the parents, so every partition (and future ones) gets its own copy
+CREATE INDEX idx_transaction_ref ON transactions(transaction_ref);
+CREATE INDEX idx_transaction_source_created ON transactions(source_wallet_id, created_at, id);
+CREATE INDEX idx_transaction_dest_created ON transactions(destination_wallet_id, created_at, id);
+CREATE INDEX idx_transaction_status ON transactions(status);
+CREATE INDEX idx_transaction_created ON transactions(created_at);
+CREATE INDEX idx_idempotency_key ON transactions(idempotency_key);
+
+CREATE INDEX idx_ledger_transaction ON ledger_entries(transaction_id);
+CREATE INDEX idx_ledger_created ON ledger_entries(created_at);
+CREATE INDEX idx_ledger_wallet_created ON ledger_entries(wallet_id, created_at, id);
+
+CREATE TABLE partition_archives(
+    partition_name VARCHAR(100) PRIMARY KEY,
+    parent_table VARCHAR(50) NOT NULL,
+    range_start TIMESTAMP NOT NULL,
+    range_end TIMESTAMP NOT NULL,
+    row_count BIGINT NOT NULL,
+    file_path VARCHAR(500) NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,19 @@
+-- Bumped by any change to fraud_rules; nodes poll it to know when to recompile
+CREATE TABLE fraud_rule_set_version(
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    version BIGINT NOT NULL
+);
+
+INSERT INTO fraud_rule_set_version (id, version) VALUES (1, 1);
+
+CREATE OR REPLACE FUNCTION bump_fraud_rule_set_version()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE fraud_rule_set_version SET version = version + 1 WHERE id = 1;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_fraud_rule_set_version
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON fraud_rules
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_fraud_rule_set_version();
@@ -0,0 +1,22 @@
+-- Daily limits roll over at midnight in the wallet's own time zone
+ALTER TABLE wallets ADD COLUMN time_zone VARCHAR(50) NOT NULL DEFAULT 'UTC';
+
+-- Outgoing amount (fees included) per wallet and local day, upserted in the same
+-- transaction as the debit it counts
+CREATE TABLE wallet_daily_spend(
+    wallet_id UUID NOT NULL REFERENCES wallets(id) ON DELETE CASCADE,
+    spend_date DATE NOT NULL,
+    amount NUMERIC(19, 4) NOT NULL DEFAULT 0,
+    transaction_count INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (wallet_id, spend_date)
+);
+
+-- Seed the current day so limits hold across the deployment
+INSERT INTO wallet_daily_spend (wallet_id, spend_date, amount, transaction_count)
+SELECT source_wallet_id, CAST(created_at AS DATE), SUM(amount + fee), COUNT(*)
+FROM transactions
+WHERE source_wallet_id IS NOT NULL
+  AND status = 'COMPLETED'
+  AND created_at >= CURRENT_DATE - 1
+GROUP BY source_wallet_id, CAST(created_at AS DATE);
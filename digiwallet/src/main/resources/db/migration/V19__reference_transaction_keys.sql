@@ -0,0 +1,19 @@
+-- V16 dropped the foreign keys to transactions(id), which a partitioned table can no
+-- longer provide. transaction_keys keeps one row per transaction id and is never
+-- archived, so the rows that point at a transaction reference it instead.
+--
+-- Deferred so that rows written before their transaction in the same database
+-- transaction are checked at commit. The unpartitioned tables skip validating
+-- existing rows, which may predate this migration's guarantee.
+
+ALTER TABLE ledger_entries
+    ADD CONSTRAINT fk_ledger_entries_transaction_keys FOREIGN KEY (transaction_id)
+        REFERENCES transaction_keys(transaction_id) DEFERRABLE INITIALLY DEFERRED;
+
+ALTER TABLE split_payments
+    ADD CONSTRAINT fk_split_payments_transaction_keys FOREIGN KEY (transaction_id)
+        REFERENCES transaction_keys(transaction_id) DEFERRABLE INITIALLY DEFERRED NOT VALID;
+
+ALTER TABLE wallet_activity
+    ADD CONSTRAINT fk_wallet_activity_transaction_keys FOREIGN KEY (transaction_id)
+        REFERENCES transaction_keys(transaction_id) DEFERRABLE INITIALLY DEFERRED NOT VALID;
@@ -0,0 +1,21 @@
+-- Daily limits parse wallets.time_zone on every debit, so only known zone names are
+-- accepted. A trigger rather than a CHECK: a CHECK would be re-evaluated on every
+-- balance update, the trigger only when time_zone itself is written.
+CREATE OR REPLACE FUNCTION validate_wallet_time_zone()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_timezone_names WHERE name = NEW.time_zone) THEN
+        RAISE EXCEPTION 'Unknown time zone: %', NEW.time_zone
+            USING ERRCODE = 'check_violation';
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_wallet_time_zone
+    BEFORE INSERT OR UPDATE OF time_zone ON wallets
+    FOR EACH ROW EXECUTE FUNCTION validate_wallet_time_zone();
+
+-- Rows written before this migration
+UPDATE wallets SET time_zone = 'UTC'
+WHERE time_zone NOT IN (SELECT name FROM pg_timezone_names);
@@ -0,0 +1,13 @@
+-- Credits to a striped wallet land on several stripe rows concurrently, so its balance
+-- changes have no serial order: two credits on different stripes would each record a
+-- balance without the other. Entries of striped wallets carry no balance_after;
+-- readers derive running balances from a checkpoint plus the signed amounts since.
+ALTER TABLE ledger_entries ALTER COLUMN balance_after DROP NOT NULL;
+ALTER TABLE wallet_activity ALTER COLUMN balance_after DROP NOT NULL;
+
+-- Values already recorded on striped wallets may be off the same way
+UPDATE ledger_entries SET balance_after = NULL
+WHERE wallet_id IN (SELECT id FROM wallets WHERE stripe_count > 0);
+
+UPDATE wallet_activity SET balance_after = NULL
+WHERE wallet_id IN (SELECT id FROM wallets WHERE stripe_count > 0);
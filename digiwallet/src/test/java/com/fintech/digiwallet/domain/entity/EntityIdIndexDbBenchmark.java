@@ -0,0 +1,133 @@
+package com.fintech.digiwallet.domain.entity;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Inserts the same synthetic ledger keyed by RANDOM and by TIME_ORDERED ids and
+// reports the size of each primary key index. Only runs in the bench profile,
+// against the compose PostgreSQL unless bench.db.url says otherwise:
+//
+//   mvn -Pbench test -Dbench.rows=1000000
+class EntityIdIndexDbBenchmark {
+
+    private static final String URL = System.getProperty("bench.db.url",
+            "jdbc:postgresql://localhost:5432/wallet_dev");
+    private static final String USER = System.getProperty("bench.db.user", "postgres");
+    private static final String PASSWORD = System.getProperty("bench.db.password", "postgres");
+    private static final int ROWS = Integer.getInteger("bench.rows", 500_000);
+    private static final int BATCH_SIZE = 1_000;
+    private static final int WALLETS = 1_000;
+
+    private Connection connection;
+
+    @BeforeEach
+    void connect() {
+        try {
+            connection = DriverManager.getConnection(URL, USER, PASSWORD);
+        } catch (SQLException e) {
+            assumeTrue(false, "No PostgreSQL at " + URL + ": " + e.getMessage());
+        }
+    }
+
+    @AfterEach
+    void disconnect() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    void primaryKeyIndexSizeByIdStrategy() throws SQLException {
+        EntityIds.Strategy previous = EntityIds.getStrategy();
+        Map<EntityIds.Strategy, Long> indexBytes = new EnumMap<>(EntityIds.Strategy.class);
+        try {
+            for (EntityIds.Strategy strategy : EntityIds.Strategy.values()) {
+                EntityIds.setStrategy(strategy);
+                indexBytes.put(strategy, run(strategy));
+            }
+        } finally {
+            EntityIds.setStrategy(previous);
+        }
+
+        // Random keys split pages all over the index and leave them half full;
+        // time-ordered keys fill the right-most page before splitting it
+        assertThat(indexBytes.get(EntityIds.Strategy.TIME_ORDERED))
+                .isLessThan(indexBytes.get(EntityIds.Strategy.RANDOM));
+    }
+
+    private long run(EntityIds.Strategy strategy) throws SQLException {
+        String table = "bench_ledger_" + strategy.name().toLowerCase();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            // The columns ledger_entries is keyed and mostly read by
+            statement.execute("CREATE UNLOGGED TABLE " + table + " (" +
+                    "id UUID PRIMARY KEY, wallet_id UUID NOT NULL, " +
+                    "amount NUMERIC(19, 4) NOT NULL, created_at TIMESTAMP NOT NULL)");
+        }
+
+        UUID[] wallets = new UUID[WALLETS];
+        for (int i = 0; i < WALLETS; i++) {
+            wallets[i] = UUID.randomUUID();
+        }
+
+        long started = System.nanoTime();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (id, wallet_id, amount, created_at) VALUES (?, ?, ?, ?)")) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int row = 1; row <= ROWS; row++) {
+                insert.setObject(1, EntityIds.newId());
+                insert.setObject(2, wallets[random.nextInt(WALLETS)]);
+                insert.setBigDecimal(3, BigDecimal.valueOf(random.nextLong(1, 1_000_000), 2));
+                insert.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+                insert.addBatch();
+                if (row % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        long indexBytes;
+        long tableBytes;
+        try (Statement statement = connection.createStatement();
+             ResultSet sizes = statement.executeQuery("SELECT " +
+                     "pg_relation_size('" + table + "_pkey'), pg_relation_size('" + table + "')")) {
+            sizes.next();
+            indexBytes = sizes.getLong(1);
+            tableBytes = sizes.getLong(2);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE " + table);
+        }
+
+        System.out.printf("%-12s rows=%d insert=%dms pkey=%.1f MB (%.1f B/row) heap=%.1f MB%n",
+                strategy, ROWS, elapsedMs, indexBytes / 1048576.0, (double) indexBytes / ROWS,
+                tableBytes / 1048576.0);
+        return indexBytes;
+    }
+}
@@ -0,0 +1,88 @@
+package com.fintech.digiwallet.domain.entity;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityIdsTest {
+
+    @AfterEach
+    void restoreStrategy() {
+        EntityIds.setStrategy(EntityIds.Strategy.TIME_ORDERED);
+    }
+
+    @Test
+    void issuesVersion7IdsStampedWithTheCurrentTime() {
+        long before = System.currentTimeMillis();
+        UUID id = EntityIds.timeOrdered();
+        long after = System.currentTimeMillis();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        // Bursts from other tests may have carried full counters into the timestamp
+        assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, after + 1_000);
+    }
+
+    // PostgreSQL compares uuids as unsigned bytes; the timestamp and counter in the
+    // high half decide the order, and that half never repeats
+    @Test
+    void idsIncreaseBytewiseInIssueOrder() {
+        long previous = EntityIds.timeOrdered().getMostSignificantBits();
+        for (int i = 0; i < 100_000; i++) {
+            long next = EntityIds.timeOrdered().getMostSignificantBits();
+            assertThat(Long.compareUnsigned(next, previous)).isPositive();
+            previous = next;
+        }
+    }
+
+    @Test
+    void concurrentIdsAreUnique() throws Exception {
+        int threads = 8;
+        int idsPerThread = 50_000;
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < idsPerThread; i++) {
+                        ids.add(EntityIds.timeOrdered());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(threads * idsPerThread);
+    }
+
+    @Test
+    void followsTheConfiguredStrategy() {
+        assertThat(EntityIds.newId().version()).isEqualTo(7);
+
+        EntityIds.setStrategy(EntityIds.Strategy.RANDOM);
+
+        assertThat(EntityIds.newId().version()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,127 @@
+package com.fintech.digiwallet.domain.repository;
+
+import com.fintech.digiwallet.domain.entity.WalletActivity;
+import com.fintech.digiwallet.domain.enums.AccountType;
+import com.fintech.digiwallet.domain.enums.Currency;
+import com.fintech.digiwallet.domain.enums.TransactionStatus;
+import com.fintech.digiwallet.domain.enums.TransactionType;
+import com.fintech.digiwallet.dto.mapper.WalletActivityMapper;
+import com.fintech.digiwallet.dto.response.TransactionResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Statement counts of the wallet history read paths (GET /wallet/{walletNumber} and
+// GET /wallet/{walletNumber}/history). Both read wallet_activity, which carries the
+// counterparty wallet number itself, so a page must not load any wallet.
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+class WalletActivityRepositoryTest {
+
+    private static final int PAGE_SIZE = 20;
+    private static final UUID WALLET_ID = UUID.randomUUID();
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 1, 9, 0);
+
+    private final WalletActivityMapper mapper = Mappers.getMapper(WalletActivityMapper.class);
+
+    @Autowired
+    private WalletActivityRepository walletActivityRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seedActivity() {
+        for (int i = 0; i < 3 * PAGE_SIZE; i++) {
+            AccountType direction = i % 2 == 0 ? AccountType.DEBIT : AccountType.CREDIT;
+            entityManager.persist(WalletActivity.builder()
+                    .id(UUID.randomUUID())
+                    .walletId(WALLET_ID)
+                    .walletNumber("WLT0000000000001")
+                    .transactionId(UUID.randomUUID())
+                    .transactionRef("TXN-" + i)
+                    .transactionType(TransactionType.TRANSFER)
+                    .status(TransactionStatus.COMPLETED)
+                    .direction(direction)
+                    .amount(new BigDecimal("10.0000"))
+                    .fee(BigDecimal.ZERO)
+                    .currency(Currency.USD)
+                    .counterpartyWalletNumber(String.format("WLT%013d", i + 2))
+                    .balanceAfter(BigDecimal.valueOf(i))
+                    .completedAt(START.plusMinutes(i))
+                    .createdAt(START.plusMinutes(i))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void historyPageIsOneStatement() {
+        List<WalletActivity> rows = walletActivityRepository.findPageBefore(
+                WALLET_ID, LocalDateTime.of(9999, 12, 31, 0, 0),
+                new UUID(Long.MAX_VALUE, Long.MAX_VALUE), PAGE_SIZE + 1);
+        List<TransactionResponse> page = mapper.toResponseList(rows.subList(0, PAGE_SIZE));
+
+        assertThat(page).hasSize(PAGE_SIZE)
+                .allSatisfy(item -> assertThat(item.getSourceWalletNumber()).isNotNull())
+                .allSatisfy(item -> assertThat(item.getDestinationWalletNumber()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void deeperHistoryPageIsStillOneStatement() {
+        List<WalletActivity> first = walletActivityRepository.findPageBefore(
+                WALLET_ID, LocalDateTime.of(9999, 12, 31, 0, 0),
+                new UUID(Long.MAX_VALUE, Long.MAX_VALUE), PAGE_SIZE);
+        WalletActivity last = first.get(first.size() - 1);
+        statistics.clear();
+
+        List<TransactionResponse> page = mapper.toResponseList(walletActivityRepository.findPageBefore(
+                WALLET_ID, last.getCreatedAt(), last.getTransactionId(), PAGE_SIZE + 1));
+
+        assertThat(page).hasSize(PAGE_SIZE + 1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void offsetPageIsOneSelectAndOneCount() {
+        Page<TransactionResponse> page = walletActivityRepository
+                .findByWalletId(WALLET_ID, PageRequest.of(1, PAGE_SIZE,
+                        Sort.by(Sort.Direction.DESC, "createdAt")))
+                .map(mapper::toResponse);
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE)
+                .allSatisfy(item -> assertThat(item.getSourceWalletNumber()).isNotNull());
+        assertThat(page.getTotalElements()).isEqualTo(3 * PAGE_SIZE);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,67 @@
+package com.fintech.digiwallet.domain.value;
+
+import com.fintech.digiwallet.domain.enums.Currency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// The transfer path's amount arithmetic (1% fee, total, balance and threshold
+// checks) with the BigDecimal code it replaced and with Money.
+//
+//   mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+//   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+//       org.openjdk.jmh.Main MoneyBenchmark -prof gc
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final BigDecimal FEE_PERCENTAGE = new BigDecimal("0.01");
+
+    private BigDecimal amount;
+    private BigDecimal available;
+    private BigDecimal threshold;
+    private Money moneyAmount;
+    private Money moneyAvailable;
+    private Money moneyThreshold;
+
+    @Setup
+    public void setUp() {
+        long cents = ThreadLocalRandom.current().nextLong(100, 10_000_000);
+        amount = BigDecimal.valueOf(cents, 2);
+        available = new BigDecimal("250000.0000");
+        threshold = new BigDecimal("10000.00");
+        moneyAmount = Money.ofMinor(cents, Currency.USD);
+        moneyAvailable = Money.of(available, Currency.USD);
+        moneyThreshold = Money.of(threshold, Currency.USD);
+    }
+
+    @Benchmark
+    public boolean bigDecimal() {
+        BigDecimal fee = amount.multiply(FEE_PERCENTAGE).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal total = amount.add(fee);
+        return available.compareTo(total) >= 0 && total.compareTo(threshold) < 0;
+    }
+
+    @Benchmark
+    public boolean money() {
+        Money fee = moneyAmount.basisPoints(100, RoundingMode.HALF_UP);
+        Money total = moneyAmount.plus(fee);
+        return moneyAvailable.isGreaterThanOrEqual(total) && total.isLessThan(moneyThreshold);
+    }
+}
@@ -0,0 +1,115 @@
+package com.fintech.digiwallet.domain.value;
+
+import com.fintech.digiwallet.domain.enums.Currency;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    private static Money usd(String amount) {
+        return Money.of(new BigDecimal(amount), Currency.USD);
+    }
+
+    @Test
+    void convertsExactAmountsToMinorUnits() {
+        assertThat(usd("12.34").minorUnits()).isEqualTo(1234);
+        assertThat(usd("12.3400").minorUnits()).isEqualTo(1234);
+        assertThat(usd("-0.01").minorUnits()).isEqualTo(-1);
+        assertThat(usd("12.34").toBigDecimal()).isEqualByComparingTo("12.34");
+        assertThat(usd("12.34")).hasToString("12.34 USD");
+    }
+
+    @Test
+    void rejectsAmountsFinerThanTheCurrency() {
+        assertThat(Money.fitsMinorUnits(new BigDecimal("1.005"), Currency.USD)).isFalse();
+        assertThat(Money.fitsMinorUnits(new BigDecimal("1.0500"), Currency.USD)).isTrue();
+        assertThatThrownBy(() -> usd("1.005")).isInstanceOf(ArithmeticException.class);
+        assertThat(Money.of(new BigDecimal("1.005"), Currency.USD, RoundingMode.HALF_UP).minorUnits())
+                .isEqualTo(101);
+    }
+
+    @Test
+    void addsSubtractsAndCompares() {
+        Money total = usd("10.00").plus(usd("0.10"));
+
+        assertThat(total).isEqualTo(usd("10.10"));
+        assertThat(total.minus(usd("10.10")).isZero()).isTrue();
+        assertThat(usd("1.00").minus(usd("2.00")).isNegative()).isTrue();
+        assertThat(usd("1.00").negate()).isEqualTo(usd("-1.00"));
+        assertThat(usd("1.00").isLessThan(usd("1.01"))).isTrue();
+        assertThat(usd("1.01").isGreaterThanOrEqual(usd("1.01"))).isTrue();
+        assertThat(usd("0.01").isPositive()).isTrue();
+    }
+
+    @Test
+    void failsOnOverflowInsteadOfWrapping() {
+        Money max = Money.ofMinor(Long.MAX_VALUE, Currency.USD);
+
+        assertThatThrownBy(() -> max.plus(Money.ofMinor(1, Currency.USD)))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> max.times(2)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofMinor(Long.MIN_VALUE, Currency.USD).negate())
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void rejectsMixedCurrencies() {
+        Money euros = Money.of(new BigDecimal("1.00"), Currency.EUR);
+
+        assertThatThrownBy(() -> usd("1.00").plus(euros))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("USD")
+                .hasMessageContaining("EUR");
+        assertThatThrownBy(() -> usd("1.00").compareTo(euros))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void computesBasisPointFees() {
+        assertThat(usd("100.00").basisPoints(100, RoundingMode.HALF_UP)).isEqualTo(usd("1.00"));
+        assertThat(usd("0.50").basisPoints(100, RoundingMode.HALF_UP)).isEqualTo(usd("0.01"));
+        assertThat(usd("0.49").basisPoints(100, RoundingMode.HALF_UP)).isEqualTo(usd("0.00"));
+        assertThat(usd("0.49").basisPoints(100, RoundingMode.UP)).isEqualTo(usd("0.01"));
+    }
+
+    // Every rounding mode against BigDecimal, for both signs and all remainders,
+    // including the exact halves
+    @Test
+    void roundsLikeBigDecimal() {
+        long[] denominators = {2, 3, 4, 7, 10, 10_000, -4};
+        for (RoundingMode mode : RoundingMode.values()) {
+            if (mode == RoundingMode.UNNECESSARY) {
+                continue;
+            }
+            for (long minor = -250; minor <= 250; minor++) {
+                for (long denominator : denominators) {
+                    for (long numerator : new long[]{1, 3, 100, 9_999}) {
+                        long expected = BigDecimal.valueOf(minor)
+                                .multiply(BigDecimal.valueOf(numerator))
+                                .divide(BigDecimal.valueOf(denominator), 0, mode)
+                                .longValueExact();
+
+                        Money result = Money.ofMinor(minor, Currency.USD)
+                                .times(numerator, denominator, mode);
+
+                        assertThat(result.minorUnits())
+                                .as("%d * %d / %d %s", minor, numerator, denominator, mode)
+                                .isEqualTo(expected);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void unnecessaryRoundingFailsOnlyWhenRoundingIsNeeded() {
+        assertThat(usd("1.00").times(1, 4, RoundingMode.UNNECESSARY)).isEqualTo(usd("0.25"));
+        assertThatThrownBy(() -> usd("0.01").times(1, 4, RoundingMode.UNNECESSARY))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
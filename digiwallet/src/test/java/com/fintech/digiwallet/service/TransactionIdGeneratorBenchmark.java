@@ -0,0 +1,54 @@
+package com.fintech.digiwallet.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Ids per microsecond from one generator, uncontended and with four threads sharing
+// it. Run like MoneyBenchmark:
+//
+//   java -cp ... org.openjdk.jmh.Main TransactionIdGeneratorBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionIdGeneratorBenchmark {
+
+    private TransactionIdGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new TransactionIdGenerator();
+        ReflectionTestUtils.setField(generator, "nodeId", 1L);
+        generator.init();
+    }
+
+    @Benchmark
+    public long nextId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long nextIdContended() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String transactionRef() {
+        return generator.generateTransactionRef();
+    }
+}
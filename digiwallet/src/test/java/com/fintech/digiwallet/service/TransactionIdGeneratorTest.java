@@ -0,0 +1,94 @@
+package com.fintech.digiwallet.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionIdGeneratorTest {
+
+    private static TransactionIdGenerator generator(long nodeId) {
+        TransactionIdGenerator generator = new TransactionIdGenerator();
+        ReflectionTestUtils.setField(generator, "nodeId", nodeId);
+        generator.init();
+        return generator;
+    }
+
+    @Test
+    void failsWithoutAValidNodeId() {
+        assertThatThrownBy(() -> generator(-1)).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("node-id");
+        assertThatThrownBy(() -> generator(1024)).isInstanceOf(IllegalStateException.class);
+    }
+
+    // Enough ids to exhaust the 4096 per-millisecond sequence many times over
+    @Test
+    void idsOfOneNodeStrictlyIncrease() {
+        TransactionIdGenerator generator = generator(7);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 200_000; i++) {
+            long next = generator.nextId();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void concurrentIdsAcrossNodesAreUnique() throws Exception {
+        List<TransactionIdGenerator> nodes = List.of(generator(0), generator(1), generator(1023));
+        int threadsPerNode = 4;
+        int idsPerThread = 50_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(nodes.size() * threadsPerNode);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (TransactionIdGenerator node : nodes) {
+                for (int t = 0; t < threadsPerNode; t++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < idsPerThread; i++) {
+                            ids.add(node.nextId());
+                        }
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(nodes.size() * threadsPerNode * idsPerThread);
+    }
+
+    @Test
+    void refsAreReadableAndSortInGenerationOrder() {
+        TransactionIdGenerator generator = generator(42);
+
+        String first = generator.generateTransactionRef();
+        String second = generator.generateTransactionRef();
+        String wallet = generator.generateWalletNumber();
+
+        assertThat(first).matches("TXN-\\d{8}-[0-9A-HJKMNP-TV-Z]{13}");
+        assertThat(wallet).matches("WLT[0-9A-HJKMNP-TV-Z]{13}");
+        assertThat(second).isGreaterThan(first);
+        assertThat(wallet.substring(3)).isGreaterThan(second.substring(13));
+    }
+}
@@ -0,0 +1,93 @@
+package com.fintech.digiwallet.service;
+
+import com.fintech.digiwallet.domain.entity.Transaction;
+import com.fintech.digiwallet.domain.entity.Wallet;
+import com.fintech.digiwallet.domain.enums.Currency;
+import com.fintech.digiwallet.domain.enums.TransactionStatus;
+import com.fintech.digiwallet.domain.projection.WalletBalance;
+import com.fintech.digiwallet.domain.projection.WalletMetadata;
+import com.fintech.digiwallet.domain.repository.TransactionRepository;
+import com.fintech.digiwallet.dto.mapper.TransactionMapper;
+import com.fintech.digiwallet.dto.request.DepositRequest;
+import com.fintech.digiwallet.dto.response.TransactionResponse;
+import com.fintech.digiwallet.exception.TransactionLimitExceededException;
+import com.fintech.digiwallet.service.activity.WalletActivityService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TransactionServiceTest {
+
+    private static final WalletMetadata WALLET = new WalletMetadata(UUID.randomUUID(),
+            "WLT0000000000001", UUID.randomUUID(), Currency.USD, true, 1, "UTC");
+
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private WalletService walletService;
+    @Mock
+    private LedgerService ledgerService;
+    @Mock
+    private IdempotencyService idempotencyService;
+    @Mock
+    private FraudDetectionService fraudDetectionService;
+    @Mock
+    private TransactionMapper transactionMapper;
+    @Mock
+    private WalletActivityService walletActivityService;
+    @Mock
+    private TransactionIdGenerator idGenerator;
+
+    @InjectMocks
+    private TransactionService transactionService;
+
+    // The daily limit applies to outgoing money; a deposit larger than it goes through
+    @Test
+    void depositAboveTheDailyLimitSucceeds() {
+        BigDecimal amount = new BigDecimal("50000.00");
+        doThrow(new TransactionLimitExceededException("Daily transaction limit exceeded"))
+                .when(fraudDetectionService).checkTransaction(any(), any(), any(), any());
+        doThrow(new TransactionLimitExceededException("Daily transaction limit exceeded"))
+                .when(fraudDetectionService).recordDailySpend(any(), any());
+
+        when(walletService.getWalletMetadata(WALLET.walletNumber())).thenReturn(WALLET);
+        when(walletService.getWalletReference(WALLET.id())).thenReturn(new Wallet());
+        when(idGenerator.generateTransactionRef()).thenReturn("TXN-20261018-0000000000001");
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(call -> call.getArgument(0));
+        when(walletService.creditFunds(eq(WALLET), eq(amount), any())).thenReturn(
+                new WalletBalance(WALLET.id(), amount, amount, BigDecimal.ZERO, 2));
+        TransactionResponse mapped = new TransactionResponse();
+        when(transactionMapper.toResponse(any(Transaction.class), any(), eq(WALLET.walletNumber())))
+                .thenAnswer(call -> {
+                    mapped.setStatus(call.<Transaction>getArgument(0).getStatus());
+                    return mapped;
+                });
+
+        TransactionResponse response = transactionService.deposit(DepositRequest.builder()
+                .walletNumber(WALLET.walletNumber())
+                .amount(amount)
+                .currency(Currency.USD)
+                .paymentMethod("CARD")
+                .idempotencyKey("deposit-1")
+                .build());
+
+        assertThat(response.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        verifyNoInteractions(fraudDetectionService);
+    }
+}
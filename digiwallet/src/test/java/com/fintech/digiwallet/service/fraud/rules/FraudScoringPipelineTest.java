@@ -0,0 +1,184 @@
+package com.fintech.digiwallet.service.fraud.rules;
+
+import com.fintech.digiwallet.domain.enums.FraudRiskLevel;
+import com.fintech.digiwallet.exception.TransactionLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FraudScoringPipelineTest {
+
+    private static final long BUDGET_MS = 100;
+    private static final FraudCheck CHECK = new FraudCheck(null, null, null, "TRANSFER");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FraudScoringPipeline pipeline = new FraudScoringPipeline(meterRegistry, 4, 16, BUDGET_MS);
+
+    @AfterEach
+    void shutDown() {
+        pipeline.shutdown();
+    }
+
+    private static CompiledFraudRule rule(String name, CompiledFraudRule.FailurePolicy policy,
+                                          FraudRuleEvaluator evaluator) {
+        return new CompiledFraudRule(name, "TEST", 1, "BLOCK", policy, evaluator);
+    }
+
+    private static CompiledFraudRule concurrent(String name, FraudRiskLevel level) {
+        return rule(name, CompiledFraudRule.FailurePolicy.OPEN, check -> level);
+    }
+
+    private static CompiledFraudRule inline(String name, FraudRiskLevel level, AtomicBoolean called) {
+        return rule(name, CompiledFraudRule.FailurePolicy.OPEN, new FraudRuleEvaluator() {
+            @Override
+            public FraudRiskLevel evaluate(FraudCheck check) {
+                called.set(true);
+                return level;
+            }
+
+            @Override
+            public boolean isInline() {
+                return true;
+            }
+        });
+    }
+
+    // Answers long after the budget unless cancelled
+    private static CompiledFraudRule slow(String name, CompiledFraudRule.FailurePolicy policy) {
+        return rule(name, policy, check -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return FraudRiskLevel.LOW;
+        });
+    }
+
+    private FraudRiskLevel score(CompiledFraudRule... rules) {
+        return pipeline.score(new FraudRuleSet(1, List.of(rules), Instant.now()), CHECK);
+    }
+
+    private long count(String rule, String outcome) {
+        return meterRegistry.get("fraud.rule.evaluation")
+                .tag("rule", rule).tag("outcome", outcome).timer().count();
+    }
+
+    @Test
+    void returnsTheHighestRiskOfInlineAndConcurrentRules() {
+        AtomicBoolean called = new AtomicBoolean();
+
+        FraudRiskLevel result = score(
+                inline("inline", FraudRiskLevel.MEDIUM, called),
+                concurrent("low", FraudRiskLevel.LOW),
+                concurrent("high", FraudRiskLevel.HIGH));
+
+        assertThat(result).isEqualTo(FraudRiskLevel.HIGH);
+        assertThat(called).isTrue();
+        assertThat(count("high", "high")).isEqualTo(1);
+        assertThat(meterRegistry.get("fraud.assessment").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void criticalInlineRuleSkipsTheRest() {
+        AtomicBoolean laterInline = new AtomicBoolean();
+        AtomicBoolean concurrentCalled = new AtomicBoolean();
+
+        FraudRiskLevel result = score(
+                inline("critical", FraudRiskLevel.CRITICAL, new AtomicBoolean()),
+                inline("later", FraudRiskLevel.LOW, laterInline),
+                rule("concurrent", CompiledFraudRule.FailurePolicy.OPEN, check -> {
+                    concurrentCalled.set(true);
+                    return FraudRiskLevel.LOW;
+                }));
+
+        assertThat(result).isEqualTo(FraudRiskLevel.CRITICAL);
+        assertThat(laterInline).isFalse();
+        assertThat(concurrentCalled).isFalse();
+    }
+
+    // The critical rule answers once the slow one is running, so cancelling it interrupts
+    @Test
+    void criticalConcurrentRuleCancelsSlowRules() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        long started = System.nanoTime();
+        FraudRiskLevel result = score(
+                rule("slow", CompiledFraudRule.FailurePolicy.CLOSED, check -> {
+                    running.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                    }
+                    return FraudRiskLevel.LOW;
+                }),
+                rule("critical", CompiledFraudRule.FailurePolicy.OPEN, check -> {
+                    try {
+                        running.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return FraudRiskLevel.CRITICAL;
+                }));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // The slow rule fails closed, but CRITICAL decided before the budget ran out
+        assertThat(result).isEqualTo(FraudRiskLevel.CRITICAL);
+        assertThat(elapsedMs).isLessThan(BUDGET_MS);
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void ruleOverBudgetFailingOpenIsIgnored() {
+        long started = System.nanoTime();
+        FraudRiskLevel result = score(
+                slow("slow", CompiledFraudRule.FailurePolicy.OPEN),
+                concurrent("medium", FraudRiskLevel.MEDIUM));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertThat(result).isEqualTo(FraudRiskLevel.MEDIUM);
+        assertThat(elapsedMs).isBetween(BUDGET_MS - 1, BUDGET_MS + 1_000);
+        assertThat(count("slow", "timeout")).isEqualTo(1);
+    }
+
+    @Test
+    void ruleOverBudgetFailingClosedCountsAsHigh() {
+        FraudRiskLevel result = score(
+                slow("slow", CompiledFraudRule.FailurePolicy.CLOSED),
+                concurrent("low", FraudRiskLevel.LOW));
+
+        assertThat(result).isEqualTo(FraudRiskLevel.HIGH);
+    }
+
+    @Test
+    void failingRulesFollowTheirPolicy() {
+        FraudRuleEvaluator broken = check -> {
+            throw new IllegalStateException("boom");
+        };
+
+        assertThat(score(rule("open", CompiledFraudRule.FailurePolicy.OPEN, broken)))
+                .isEqualTo(FraudRiskLevel.LOW);
+        assertThat(score(rule("closed", CompiledFraudRule.FailurePolicy.CLOSED, broken)))
+                .isEqualTo(FraudRiskLevel.HIGH);
+        assertThat(count("open", "error")).isEqualTo(1);
+    }
+
+    @Test
+    void limitExceededReachesTheCaller() {
+        assertThatThrownBy(() -> score(rule("limit", CompiledFraudRule.FailurePolicy.OPEN, check -> {
+            throw new TransactionLimitExceededException("Daily limit exceeded");
+        }))).isInstanceOf(TransactionLimitExceededException.class)
+                .hasMessage("Daily limit exceeded");
+    }
+}
@@ -0,0 +1,85 @@
+package com.fintech.digiwallet.service.fraud.velocity;
+
+import com.fintech.digiwallet.domain.entity.EntityIds;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    private static long estimate(HyperLogLog sketch, int precision) {
+        byte[] registers = new byte[1 << precision];
+        sketch.mergeInto(registers);
+        return HyperLogLog.estimate(registers);
+    }
+
+    // The configured precision of 8 should count a handful of counterparties exactly
+    // or within one
+    @Test
+    void smallCountsAreNearlyExact() {
+        for (int distinct = 1; distinct <= 20; distinct++) {
+            HyperLogLog sketch = new HyperLogLog(8);
+            for (int i = 0; i < distinct; i++) {
+                sketch.add(HyperLogLog.hash(new UUID(42, i)));
+            }
+
+            assertThat(estimate(sketch, 8)).as("%d distinct", distinct)
+                    .isCloseTo(distinct, within(1L));
+        }
+    }
+
+    @Test
+    void repeatsDoNotInflateTheCount() {
+        HyperLogLog sketch = new HyperLogLog(8);
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 5; i++) {
+                sketch.add(HyperLogLog.hash(new UUID(7, i)));
+            }
+        }
+
+        assertThat(estimate(sketch, 8)).isEqualTo(5);
+    }
+
+    // Standard error at precision 12 is about 1.6%; five errors is well clear of flakiness
+    // while still catching a broken hash or estimator
+    @Test
+    void largeCountsStayWithinTheErrorBound() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        int distinct = 100_000;
+        for (int i = 0; i < distinct; i++) {
+            sketch.add(HyperLogLog.hash(EntityIds.timeOrdered()));
+        }
+
+        assertThat(estimate(sketch, 12)).isCloseTo(distinct, within((long) (distinct * 0.08)));
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        HyperLogLog first = new HyperLogLog(12);
+        HyperLogLog second = new HyperLogLog(12);
+        for (int i = 0; i < 20_000; i++) {
+            first.add(HyperLogLog.hash(new UUID(1, i)));
+            // Half of the second sketch overlaps the first
+            second.add(HyperLogLog.hash(new UUID(1, i + 10_000)));
+        }
+
+        byte[] union = new byte[1 << 12];
+        first.mergeInto(union);
+        second.mergeInto(union);
+
+        assertThat(HyperLogLog.estimate(union)).isCloseTo(30_000L, within(2_400L));
+    }
+
+    @Test
+    void clearEmptiesTheSketch() {
+        HyperLogLog sketch = new HyperLogLog(8);
+        sketch.add(HyperLogLog.hash(UUID.randomUUID()));
+
+        sketch.clear();
+
+        assertThat(estimate(sketch, 8)).isZero();
+    }
+}
@@ -0,0 +1,58 @@
+package com.fintech.digiwallet.service.fraud.velocity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCounterTest {
+
+    // One-minute window in ten six-second buckets
+    private static final long BUCKET = 6_000;
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void countsEventsInsideTheWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(BUCKET, 10, START);
+
+        counter.increment(START);
+        counter.increment(START + 1);
+        counter.increment(START + 30_000);
+
+        assertThat(counter.count(START + 30_000)).isEqualTo(3);
+    }
+
+    @Test
+    void dropsBucketsAsTheyLeaveTheWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(BUCKET, 10, START);
+        counter.increment(START);
+        counter.increment(START + 2 * BUCKET);
+        counter.increment(START + 2 * BUCKET);
+
+        assertThat(counter.count(START + 9 * BUCKET)).isEqualTo(3);
+        assertThat(counter.count(START + 10 * BUCKET)).isEqualTo(2);
+        assertThat(counter.count(START + 12 * BUCKET)).isZero();
+    }
+
+    @Test
+    void clearsEverythingAfterAGapLongerThanTheWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(BUCKET, 10, START);
+        for (int i = 0; i < 10; i++) {
+            counter.increment(START + i * BUCKET);
+        }
+
+        long later = START + 1_000 * BUCKET;
+        counter.increment(later);
+
+        assertThat(counter.count(later)).isEqualTo(1);
+    }
+
+    // Increments from a clock slightly behind the head land in the head bucket
+    @Test
+    void toleratesClocksThatStepBack() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(BUCKET, 10, START + 5 * BUCKET);
+
+        counter.increment(START);
+
+        assertThat(counter.count(START + 5 * BUCKET)).isEqualTo(1);
+    }
+}
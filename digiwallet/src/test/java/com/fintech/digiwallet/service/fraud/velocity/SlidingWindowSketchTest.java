@@ -0,0 +1,47 @@
+package com.fintech.digiwallet.service.fraud.velocity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowSketchTest {
+
+    private static final long BUCKET = 6_000;
+    private static final long START = 1_700_000_000_000L;
+
+    private static long counterparty(int n) {
+        return HyperLogLog.hash(new UUID(99, n));
+    }
+
+    @Test
+    void emptyWindowEstimatesZero() {
+        assertThat(new SlidingWindowSketch(BUCKET, 10, 8, START).estimate(START)).isZero();
+    }
+
+    // The same counterparty in several buckets is still one counterparty
+    @Test
+    void countsDistinctValuesAcrossBuckets() {
+        SlidingWindowSketch sketch = new SlidingWindowSketch(BUCKET, 10, 8, START);
+        for (int bucket = 0; bucket < 5; bucket++) {
+            sketch.add(counterparty(1), START + bucket * BUCKET);
+            sketch.add(counterparty(2), START + bucket * BUCKET);
+        }
+        sketch.add(counterparty(3), START + 5 * BUCKET);
+
+        assertThat(sketch.estimate(START + 5 * BUCKET)).isEqualTo(3);
+    }
+
+    @Test
+    void forgetsValuesOnlySeenInExpiredBuckets() {
+        SlidingWindowSketch sketch = new SlidingWindowSketch(BUCKET, 10, 8, START);
+        sketch.add(counterparty(1), START);
+        sketch.add(counterparty(2), START);
+        sketch.add(counterparty(2), START + 3 * BUCKET);
+
+        assertThat(sketch.estimate(START + 9 * BUCKET)).isEqualTo(2);
+        assertThat(sketch.estimate(START + 10 * BUCKET)).isEqualTo(1);
+        assertThat(sketch.estimate(START + 100 * BUCKET)).isZero();
+    }
+}
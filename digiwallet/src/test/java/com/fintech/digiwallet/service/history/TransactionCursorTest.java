@@ -0,0 +1,52 @@
+package com.fintech.digiwallet.service.history;
+
+import com.fintech.digiwallet.exception.InvalidTransactionException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionCursorTest {
+
+    @Test
+    void roundTripsThroughItsToken() {
+        TransactionCursor cursor = new TransactionCursor(
+                LocalDateTime.of(2024, 2, 29, 13, 45, 7, 123_456_789), UUID.randomUUID());
+
+        String token = cursor.encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(TransactionCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsTheExtremes() {
+        TransactionCursor epoch = new TransactionCursor(
+                LocalDateTime.of(1970, 1, 1, 0, 0), new UUID(0L, 0L));
+
+        assertThat(TransactionCursor.decode(epoch.encode())).isEqualTo(epoch);
+        assertThat(TransactionCursor.decode(TransactionCursor.START.encode()))
+                .isEqualTo(TransactionCursor.START);
+    }
+
+    @Test
+    void missingTokenStartsAtTheNewestRow() {
+        assertThat(TransactionCursor.decode(null)).isSameAs(TransactionCursor.START);
+        assertThat(TransactionCursor.decode(" ")).isSameAs(TransactionCursor.START);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        String token = new TransactionCursor(LocalDateTime.now(), UUID.randomUUID()).encode();
+
+        assertThatThrownBy(() -> TransactionCursor.decode("not a cursor!"))
+                .isInstanceOf(InvalidTransactionException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode(token.substring(0, token.length() - 4)))
+                .isInstanceOf(InvalidTransactionException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode(token + "AAAA"))
+                .isInstanceOf(InvalidTransactionException.class);
+    }
+}
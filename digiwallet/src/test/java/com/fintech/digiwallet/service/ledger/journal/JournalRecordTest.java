@@ -0,0 +1,37 @@
+package com.fintech.digiwallet.service.ledger.journal;
+
+import com.fintech.digiwallet.domain.enums.AccountType;
+import com.fintech.digiwallet.domain.enums.Currency;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalRecordTest {
+
+    private static JournalRecord record(BigDecimal balanceAfter, String description) {
+        return new JournalRecord(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                AccountType.DEBIT, new BigDecimal("12.5000"), Currency.EUR, balanceAfter,
+                "TXN-1", description, LocalDateTime.of(2026, 10, 18, 12, 0, 0, 123_000));
+    }
+
+    @Test
+    void roundTripsARecordedBalance() {
+        JournalRecord record = record(new BigDecimal("87.5000"), "Withdrawal");
+
+        assertThat(JournalRecord.decode(record.encode())).isEqualTo(record);
+    }
+
+    @Test
+    void roundTripsAStripedWalletEntryWithoutBalance() {
+        JournalRecord record = record(null, null);
+
+        JournalRecord decoded = JournalRecord.decode(record.encode());
+
+        assertThat(decoded).isEqualTo(record);
+        assertThat(decoded.balanceAfter()).isNull();
+    }
+}
@@ -0,0 +1,133 @@
+package com.fintech.digiwallet.service.ledger.journal;
+
+import com.fintech.digiwallet.domain.enums.AccountType;
+import com.fintech.digiwallet.domain.enums.Currency;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerJournalTest {
+
+    private static final long SEGMENT_SIZE = 1024 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private LedgerJournal journal;
+
+    @BeforeEach
+    void openJournal() throws IOException {
+        journal = open();
+    }
+
+    @AfterEach
+    void closeJournal() throws IOException {
+        journal.close();
+    }
+
+    private LedgerJournal open() throws IOException {
+        LedgerJournal opened = new LedgerJournal();
+        ReflectionTestUtils.setField(opened, "directoryName", directory.toString());
+        ReflectionTestUtils.setField(opened, "segmentSizeMb", 1);
+        opened.open();
+        return opened;
+    }
+
+    private static JournalRecord record(int n) {
+        return new JournalRecord(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                AccountType.CREDIT, new BigDecimal("10.00"), Currency.USD, BigDecimal.valueOf(n),
+                "TXN-" + n, "entry " + n, LocalDateTime.of(2026, 10, 18, 12, 0));
+    }
+
+    private void appendSegments(int count) {
+        int n = 0;
+        while (journal.getSegmentCount() < count) {
+            List<JournalRecord> batch = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                batch.add(record(n++));
+            }
+            journal.append(batch);
+        }
+        journal.forceAppended();
+    }
+
+    private List<String> segmentFiles() throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".journal"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    @Test
+    void releasesSegmentsEndingBeforeThePosition() throws IOException {
+        appendSegments(4);
+        assertThat(segmentFiles()).hasSize(4);
+
+        // The second segment ends exactly here, the third starts here
+        assertThat(journal.releaseBefore(2 * SEGMENT_SIZE)).isEqualTo(2);
+
+        assertThat(journal.getSegmentCount()).isEqualTo(2);
+        assertThat(segmentFiles()).containsExactly(
+                String.format("%020d.journal", 2 * SEGMENT_SIZE),
+                String.format("%020d.journal", 3 * SEGMENT_SIZE));
+    }
+
+    @Test
+    void keepsASegmentThatStillHoldsUnprojectedRecords() throws IOException {
+        appendSegments(3);
+
+        assertThat(journal.releaseBefore(SEGMENT_SIZE + 100)).isEqualTo(1);
+
+        assertThat(segmentFiles()).hasSize(2);
+    }
+
+    @Test
+    void neverReleasesTheActiveSegment() throws IOException {
+        appendSegments(3);
+
+        journal.releaseBefore(journal.getWritePosition());
+
+        assertThat(journal.getSegmentCount()).isEqualTo(1);
+        assertThat(segmentFiles()).containsExactly(String.format("%020d.journal", 2 * SEGMENT_SIZE));
+    }
+
+    @Test
+    void readsFromTheOldestRetainedSegmentAfterRelease() {
+        appendSegments(3);
+        journal.releaseBefore(2 * SEGMENT_SIZE);
+
+        List<LedgerJournal.PositionedRecord> records = journal.read(0, 1);
+
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).position()).isEqualTo(2 * SEGMENT_SIZE);
+    }
+
+    @Test
+    void reopensWithOnlyTheRetainedSegments() throws IOException {
+        appendSegments(3);
+        long writePosition = journal.getWritePosition();
+        journal.releaseBefore(SEGMENT_SIZE);
+        journal.close();
+
+        journal = open();
+
+        assertThat(journal.getSegmentCount()).isEqualTo(2);
+        assertThat(journal.getWritePosition()).isEqualTo(writePosition);
+    }
+}
@@ -0,0 +1,78 @@
+package com.fintech.digiwallet.service.transfer;
+
+import com.fintech.digiwallet.domain.entity.Transaction;
+import com.fintech.digiwallet.domain.enums.Currency;
+import com.fintech.digiwallet.domain.projection.WalletMetadata;
+import com.fintech.digiwallet.domain.repository.TransactionRepository;
+import com.fintech.digiwallet.dto.mapper.TransactionMapper;
+import com.fintech.digiwallet.dto.request.TransferRequest;
+import com.fintech.digiwallet.exception.InsufficientFundsException;
+import com.fintech.digiwallet.service.LedgerService;
+import com.fintech.digiwallet.service.TransactionIdGenerator;
+import com.fintech.digiwallet.service.WalletService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class JpaTransferExecutorTest {
+
+    private static final WalletMetadata SOURCE = new WalletMetadata(UUID.randomUUID(),
+            "WLT0000000000001", UUID.randomUUID(), Currency.USD, true, 0, "UTC");
+    private static final WalletMetadata DESTINATION = new WalletMetadata(UUID.randomUUID(),
+            "WLT0000000000002", UUID.randomUUID(), Currency.USD, true, 0, "UTC");
+
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private WalletService walletService;
+    @Mock
+    private LedgerService ledgerService;
+    @Mock
+    private TransactionMapper transactionMapper;
+    @Mock
+    private TransactionIdGenerator idGenerator;
+    @Mock
+    private TransferLockingStrategy transferLockingStrategy;
+
+    @InjectMocks
+    private JpaTransferExecutor executor;
+
+    // Group commit only rolls a failed transfer back to its savepoint, instead of
+    // replaying the batch, when the transfer left no entity behind
+    @Test
+    void insufficientFundsPersistsNothing() {
+        when(idGenerator.generateTransactionRef()).thenReturn("TXN-1");
+        when(transferLockingStrategy.locksBefore(any(), any())).thenReturn(true);
+        when(walletService.debitFunds(any(), any()))
+                .thenThrow(new InsufficientFundsException("Insufficient available balance"));
+
+        TransferRequest request = TransferRequest.builder()
+                .sourceWalletNumber(SOURCE.walletNumber())
+                .destinationWalletNumber(DESTINATION.walletNumber())
+                .amount(new BigDecimal("50.00"))
+                .currency(Currency.USD)
+                .build();
+
+        assertThatThrownBy(() -> executor.execute(request, SOURCE, DESTINATION, BigDecimal.ZERO))
+                .isInstanceOf(InsufficientFundsException.class);
+
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verifyNoInteractions(ledgerService);
+    }
+}